@@ -8,7 +8,8 @@ import { useNotifications } from "../../context/NotificationContext";
 import UserImg from "../../assets/images/user.png";
 
 const Header = ({ onMenuToggle }) => {
-  const { notifications, markAsRead, markAllAsRead } = useNotifications();
+  const { notifications, unreadCount, markAsRead, markAllAsRead } =
+    useNotifications();
   const [isScrolled, setIsScrolled] = useState(false);
   const [dropdownOpen, setDropdownOpen] = useState(false);
   const [notificationDropdownOpen, setNotificationDropdownOpen] =
@@ -66,9 +67,9 @@ const Header = ({ onMenuToggle }) => {
                     }
                   >
                     <IoMdNotificationsOutline className="h-5 w-5 sm:h-6 sm:w-6" />
-                    {notifications.filter((n) => !n.read).length > 0 && (
-                      <span className="absolute top-1 right-1 bg-red-500 text-white text-xs font-medium rounded-full h-4 w-4 flex items-center justify-center">
-                        {notifications.filter((n) => !n.read).length}
+                    {unreadCount > 0 && (
+                      <span className="absolute top-1 right-1 bg-red-500 text-white text-xs font-medium rounded-full h-4 min-w-4 px-1 flex items-center justify-center">
+                        {unreadCount > 99 ? "99+" : unreadCount}
                       </span>
                     )}
                   </button>
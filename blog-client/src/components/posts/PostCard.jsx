@@ -1,4 +1,4 @@
-import { useState, useEffect } from "react";
+import { useState } from "react";
 import axios from "axios";
 import { useAuth } from "../../context/AuthContext";
 import { Link } from "react-router-dom";
@@ -19,7 +19,7 @@ const PostCard = ({ post, posts, setPosts, savedPosts, setSavedPosts }) => {
   const { user } = useAuth();
   const [likes, setLikes] = useState(post.likeCount || 0);
   const [hasLiked, setHasLiked] = useState(post.hasLiked || false);
-  const [commentCount, setCommentCount] = useState(0);
+  const commentCount = post.commentCount || 0;
   const [isOptionsOpen, setIsOptionsOpen] = useState(false);
 
   const formatDate = (dateString) => {
@@ -40,40 +40,6 @@ const PostCard = ({ post, posts, setPosts, savedPosts, setSavedPosts }) => {
   const isSaved = savedPosts?.includes(post.id);
   const isOwnPost = user && post.user?.id === user.id;
 
-  useEffect(() => {
-    const fetchPostDetails = async () => {
-      try {
-        const likesResponse = await axios.get(
-          `${import.meta.env.VITE_API_URL}/posts/${post.id}/like-count`,
-          { withCredentials: true }
-        );
-        setLikes(likesResponse.data || 0); // Fallback to 0 if undefined
-
-        if (user) {
-          const userLikeResponse = await axios.get(
-            `${import.meta.env.VITE_API_URL}/posts/${post.id}/has-liked`,
-            { withCredentials: true }
-          );
-          setHasLiked(userLikeResponse.data);
-        }
-
-        const commentsResponse = await axios.get(
-          `${import.meta.env.VITE_API_URL}/comments/${post.id}/all`, // Updated endpoint
-          { withCredentials: true }
-        );
-        setCommentCount(
-          Array.isArray(commentsResponse.data)
-            ? commentsResponse.data.length
-            : 0
-        );
-      } catch (error) {
-        console.error("Error fetching post details:", error);
-      }
-    };
-
-    fetchPostDetails();
-  }, [post.id, user]);
-
   const handleLike = async () => {
     if (!user) return alert("You must be logged in to like posts.");
     try {
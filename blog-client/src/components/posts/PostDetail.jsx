@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import { useParams, Link, useNavigate } from "react-router-dom";
 import axios from "axios";
 import {
@@ -11,7 +11,9 @@ import {
 } from "react-icons/fa";
 import { ThumbsUp, MessageCircle, Edit, Trash2 } from "lucide-react";
 import { useAuth } from "../../context/AuthContext";
+import { useNotifications } from "../../context/NotificationContext";
 import UserImg from "../../assets/images/user.png";
+import hydratePosts from "./hydratePosts";
 
 const PostDetail = () => {
   const { postId } = useParams();
@@ -23,6 +25,7 @@ const PostDetail = () => {
   const [likes, setLikes] = useState(0);
   const [hasLiked, setHasLiked] = useState(false);
   const { user } = useAuth();
+  const { subscribeTopic } = useNotifications();
   const [showLikesModal, setShowLikesModal] = useState(false);
   const [likesList, setLikesList] = useState([]);
   const [loadingLikes, setLoadingLikes] = useState(false);
@@ -34,6 +37,11 @@ const PostDetail = () => {
   const [showReplyInput, setShowReplyInput] = useState({});
   const [commentReplies, setCommentReplies] = useState({});
   const [showReplies, setShowReplies] = useState({});
+  const [replyCounts, setReplyCounts] = useState({});
+  // Cursor of the next page of replies per comment; undefined while only the preview is loaded
+  const [replyCursors, setReplyCursors] = useState({});
+  const [commentsCursor, setCommentsCursor] = useState(null);
+  const [loadingMoreComments, setLoadingMoreComments] = useState(false);
 
   const [editingCommentId, setEditingCommentId] = useState(null);
   const [editCommentText, setEditCommentText] = useState("");
@@ -49,33 +57,13 @@ const PostDetail = () => {
         const postData = postResponse.data;
         setPost(postData);
 
-        const likesResponse = await axios.get(
-          `${import.meta.env.VITE_API_URL}/posts/${postId}/like-count`,
-          { withCredentials: true }
-        );
-        setLikes(likesResponse.data || 0);
-
-        if (user) {
-          const userLikeResponse = await axios.get(
-            `${import.meta.env.VITE_API_URL}/posts/${postId}/has-liked`,
-            { withCredentials: true }
-          );
-          setHasLiked(userLikeResponse.data);
-        }
-
-        const commentsResponse = await axios.get(
-          `${import.meta.env.VITE_API_URL}/comments/${postId}/all`, // Updated endpoint
-          { withCredentials: true }
-        );
-        const fetchedComments = Array.isArray(commentsResponse.data)
-          ? commentsResponse.data
-          : [];
-        setComments(fetchedComments);
-        setCommentCount(fetchedComments.length);
-
-        if (fetchedComments.length > 0) {
-          await fetchCommentLikesAndReplies(fetchedComments);
-        }
+        // Counts come from the denormalized post counters, not from the comment list
+        const [hydratedPost] = await hydratePosts([postData]);
+        setLikes(hydratedPost.likeCount || 0);
+        setHasLiked(hydratedPost.hasLiked || false);
+        setCommentCount(hydratedPost.commentCount || 0);
+
+        await fetchCommentPage(null);
       } catch (error) {
         console.error("Failed to fetch post details:", error);
       } finally {
@@ -86,51 +74,128 @@ const PostDetail = () => {
     fetchPostDetails();
   }, [postId, user]);
 
-  const fetchCommentLikesAndReplies = async (fetchedComments) => {
-    const likesObj = {};
-    const hasLikedObj = {};
-    const repliesObj = {};
-
-    await Promise.all(
-      fetchedComments.map(async (comment) => {
-        try {
-          const likeCountResponse = await axios.get(
-            `${import.meta.env.VITE_API_URL}/comments/${comment.id}/like-count`,
-            { withCredentials: true }
-          );
-          likesObj[comment.id] = likeCountResponse.data || 0;
-
-          if (user) {
-            const hasLikedResponse = await axios.get(
-              `${import.meta.env.VITE_API_URL}/comments/${
-                comment.id
-              }/has-liked`,
-              { withCredentials: true }
-            );
-            hasLikedObj[comment.id] = hasLikedResponse.data;
-          }
-
-          setReplyText((prev) => ({ ...prev, [comment.id]: "" }));
-
-          const repliesResponse = await axios.get(
-            `${import.meta.env.VITE_API_URL}/comments/${comment.id}/replies`,
-            { withCredentials: true }
-          );
-          repliesObj[comment.id] = Array.isArray(repliesResponse.data)
-            ? repliesResponse.data
-            : [];
-        } catch (error) {
-          console.error(
-            `Error fetching data for comment ${comment.id}:`,
-            error
-          );
-        }
-      })
+  // Live like and comment counts, pushed by the server at most once per interval.
+  // Topics are watched over the app's shared STOMP connection
+  useEffect(() => {
+    return subscribeTopic(`/topic/posts/${postId}/stats`, (stats) => {
+      setLikes(stats.likeCount);
+      setCommentCount(stats.commentCount);
+    });
+  }, [postId, subscribeTopic]);
+
+  // Unsubscribe functions per watched comment, so loading more comments only adds topics
+  const commentSubscriptions = useRef(new Map());
+  const commentIds = comments.map((comment) => comment.id).join(",");
+  useEffect(() => {
+    const watched = commentSubscriptions.current;
+    const ids = new Set(commentIds.split(",").filter(Boolean));
+    watched.forEach((unsubscribe, commentId) => {
+      if (!ids.has(commentId)) {
+        unsubscribe();
+        watched.delete(commentId);
+      }
+    });
+    ids.forEach((commentId) => {
+      if (!watched.has(commentId)) {
+        watched.set(
+          commentId,
+          subscribeTopic(`/topic/comments/${commentId}/stats`, (stats) =>
+            setCommentLikes((prev) => ({
+              ...prev,
+              [stats.commentId]: stats.likeCount,
+            }))
+          )
+        );
+      }
+    });
+  }, [commentIds, subscribeTopic]);
+
+  useEffect(() => {
+    const watched = commentSubscriptions.current;
+    return () => {
+      watched.forEach((unsubscribe) => unsubscribe());
+      watched.clear();
+    };
+  }, []);
+
+  // Fetch one page of the comment thread: comments with their like state and a preview of their replies
+  const fetchCommentPage = async (cursor) => {
+    const response = await axios.get(
+      `${import.meta.env.VITE_API_URL}/comments/${postId}/thread`,
+      { params: { cursor: cursor || undefined }, withCredentials: true }
     );
+    const threads = Array.isArray(response.data) ? response.data : [];
+    const byComment = (value) =>
+      Object.fromEntries(threads.map((thread) => [thread.id, value(thread)]));
+
+    setComments((prevComments) => {
+      if (!cursor) return threads;
+      const seen = new Set(prevComments.map((comment) => comment.id));
+      return [
+        ...prevComments,
+        ...threads.filter((thread) => !seen.has(thread.id)),
+      ];
+    });
+    setCommentLikes((prev) => ({
+      ...prev,
+      ...byComment((thread) => thread.likeCount || 0),
+    }));
+    setHasLikedComment((prev) => ({
+      ...prev,
+      ...byComment((thread) => thread.liked || false),
+    }));
+    setCommentReplies((prev) => ({
+      ...prev,
+      ...byComment((thread) => thread.replies || []),
+    }));
+    setReplyCounts((prev) => ({
+      ...prev,
+      ...byComment((thread) => thread.replyCount || 0),
+    }));
+    setCommentsCursor(response.headers["x-next-cursor"] || null);
+  };
 
-    setCommentLikes(likesObj);
-    setHasLikedComment(hasLikedObj);
-    setCommentReplies(repliesObj);
+  const loadMoreComments = async () => {
+    if (!commentsCursor || loadingMoreComments) return;
+    try {
+      setLoadingMoreComments(true);
+      await fetchCommentPage(commentsCursor);
+    } catch (error) {
+      console.error("Failed to load more comments:", error);
+    } finally {
+      setLoadingMoreComments(false);
+    }
+  };
+
+  const hasMoreReplies = (commentId) =>
+    replyCursors[commentId] === undefined
+      ? (replyCounts[commentId] || 0) > (commentReplies[commentId]?.length || 0)
+      : replyCursors[commentId] !== null;
+
+  const loadMoreReplies = async (commentId) => {
+    const cursor = replyCursors[commentId];
+    try {
+      const response = await axios.get(
+        `${import.meta.env.VITE_API_URL}/comments/${commentId}/replies`,
+        { params: { cursor: cursor || undefined }, withCredentials: true }
+      );
+      const page = Array.isArray(response.data) ? response.data : [];
+      setCommentReplies((prev) => {
+        // The preview is the start of the first page, so the first page replaces it
+        const loaded = cursor ? prev[commentId] || [] : [];
+        const seen = new Set(loaded.map((reply) => reply.id));
+        return {
+          ...prev,
+          [commentId]: [...loaded, ...page.filter((reply) => !seen.has(reply.id))],
+        };
+      });
+      setReplyCursors((prev) => ({
+        ...prev,
+        [commentId]: response.headers["x-next-cursor"] || null,
+      }));
+    } catch (error) {
+      console.error(`Failed to load replies for comment ${commentId}:`, error);
+    }
   };
 
   const fetchLikesList = async () => {
@@ -191,8 +256,10 @@ const PostDetail = () => {
       setHasLikedComment((prev) => ({ ...prev, [newComment.id]: false }));
       setReplyText((prev) => ({ ...prev, [newComment.id]: "" }));
       setCommentReplies((prev) => ({ ...prev, [newComment.id]: [] }));
+      setReplyCounts((prev) => ({ ...prev, [newComment.id]: 0 }));
 
-      setComments((prevComments) => [...prevComments, newComment]);
+      // Comments are listed newest first
+      setComments((prevComments) => [newComment, ...prevComments]);
       setCommentCount((prev) => prev + 1);
       setCommentText("");
     } catch (error) {
@@ -248,6 +315,10 @@ const PostDetail = () => {
         ...prev,
         [commentId]: [...(prev[commentId] || []), response.data],
       }));
+      setReplyCounts((prev) => ({
+        ...prev,
+        [commentId]: (prev[commentId] || 0) + 1,
+      }));
       setReplyText((prev) => ({ ...prev, [commentId]: "" }));
       setShowReplyInput((prev) => ({ ...prev, [commentId]: false }));
       setShowReplies((prev) => ({ ...prev, [commentId]: true }));
@@ -586,16 +657,14 @@ const PostDetail = () => {
                                 <FaReply size={12} className="sm:w-4 sm:h-4" />
                                 <span>Reply</span>
                               </button>
-                              {commentReplies[comment.id]?.length > 0 && (
+                              {replyCounts[comment.id] > 0 && (
                                 <button
                                   onClick={() => toggleReplies(comment.id)}
                                   className="text-gray-500 hover:text-blue-600 font-medium transition-colors duration-200"
                                 >
                                   {showReplies[comment.id]
                                     ? "Hide replies"
-                                    : `${
-                                        commentReplies[comment.id].length
-                                      } replies`}
+                                    : `${replyCounts[comment.id]} replies`}
                                 </button>
                               )}
                             </div>
@@ -712,6 +781,14 @@ const PostDetail = () => {
                                   </div>
                                 </div>
                               ))}
+                              {hasMoreReplies(comment.id) && (
+                                <button
+                                  onClick={() => loadMoreReplies(comment.id)}
+                                  className="text-xs sm:text-sm text-gray-500 hover:text-blue-600 font-medium transition-colors duration-200"
+                                >
+                                  Show more replies
+                                </button>
+                              )}
                             </div>
                           )}
                       </div>
@@ -724,6 +801,22 @@ const PostDetail = () => {
                 </p>
               )}
             </div>
+
+            {commentsCursor && (
+              <div className="flex justify-center mt-4 sm:mt-6">
+                <button
+                  onClick={loadMoreComments}
+                  disabled={loadingMoreComments}
+                  className={`text-sm font-medium ${
+                    loadingMoreComments
+                      ? "text-gray-400 cursor-not-allowed"
+                      : "text-blue-600 hover:text-blue-700"
+                  } transition-colors duration-200`}
+                >
+                  {loadingMoreComments ? "Loading..." : "Load more comments"}
+                </button>
+              </div>
+            )}
           </div>
         </main>
 
@@ -0,0 +1,49 @@
+import axios from "axios";
+
+// Upper bound of POST /posts/hydrate (posts.hydrate.max-ids on the server)
+const HYDRATE_BATCH_SIZE = 100;
+
+// Adds likeCount, commentCount and hasLiked to a list of posts with one
+// POST /posts/hydrate request per batch, instead of three requests per post
+const hydratePosts = async (postsArray) => {
+  if (!Array.isArray(postsArray) || postsArray.length === 0) return [];
+
+  try {
+    const ids = postsArray.map((post) => post.id);
+    const batches = [];
+    for (let i = 0; i < ids.length; i += HYDRATE_BATCH_SIZE) {
+      batches.push(ids.slice(i, i + HYDRATE_BATCH_SIZE));
+    }
+    const responses = await Promise.all(
+      batches.map((batch) =>
+        axios.post(`${import.meta.env.VITE_API_URL}/posts/hydrate`, batch, {
+          withCredentials: true,
+        })
+      )
+    );
+
+    const statsById = new Map();
+    responses.forEach((response) =>
+      (Array.isArray(response.data) ? response.data : []).forEach((stats) =>
+        statsById.set(stats.postId, stats)
+      )
+    );
+
+    return postsArray.map((post) => {
+      const stats = statsById.get(post.id);
+      return stats
+        ? {
+            ...post,
+            likeCount: stats.likeCount,
+            commentCount: stats.commentCount,
+            hasLiked: stats.liked,
+          }
+        : post;
+    });
+  } catch (error) {
+    console.error("Error hydrating posts:", error);
+    return postsArray;
+  }
+};
+
+export default hydratePosts;
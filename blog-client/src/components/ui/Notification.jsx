@@ -17,9 +17,10 @@ const Notification = ({ userId }) => {
 
     client.onConnect = () => {
       // console.log("Connected to WebSocket");
-      client.subscribe(`/user/${userId}/notifications`, (message) => {
+      client.subscribe(`/user/queue/notifications`, (message) => {
         // console.log("Received message:", message.body);
         const receivedNotification = JSON.parse(message.body);
+        if (receivedNotification.type === "UNREAD_COUNT") return;
         // console.log("Parsed notification:", receivedNotification);
         setNotifications((prev) => [
           receivedNotification.message,
@@ -9,10 +9,8 @@ import {
 } from "lucide-react";
 import UserImg from "../../assets/images/user.png";
 
-const ProfileCard = ({ user, loggedInUser, onFollowToggle }) => {
-  const [isFollowing, setIsFollowing] = useState(
-    loggedInUser?.following?.includes(user.id)
-  );
+const ProfileCard = ({ user, loggedInUser, following, onFollowToggle }) => {
+  const [isFollowing, setIsFollowing] = useState(Boolean(following));
   const [postCount, setPostCount] = useState(user.posts?.length || 0);
   const navigate = useNavigate();
 
@@ -92,13 +90,13 @@ const ProfileCard = ({ user, loggedInUser, onFollowToggle }) => {
           </div>
           <div>
             <span className="block text-sm font-semibold text-gray-800">
-              {user.followers?.length || 0}
+              {user.followerCount || 0}
             </span>
             <span className="text-xs text-gray-500">Followers</span>
           </div>
           <div>
             <span className="block text-sm font-semibold text-gray-800">
-              {user.following?.length || 0}
+              {user.followingCount || 0}
             </span>
             <span className="text-xs text-gray-500">Following</span>
           </div>
@@ -1,4 +1,11 @@
-import React, { createContext, useState, useEffect, useContext } from "react";
+import React, {
+  createContext,
+  useState,
+  useEffect,
+  useContext,
+  useRef,
+  useCallback,
+} from "react";
 import { Client } from "@stomp/stompjs";
 import SockJS from "sockjs-client";
 import axios from "axios";
@@ -8,11 +15,28 @@ const NotificationContext = createContext();
 export const NotificationProvider = ({ children, userId }) => {
   const [notifications, setNotifications] = useState([]);
   const [loading, setLoading] = useState(true);
+  // Cursor of the next, older page of notifications, or null when all are loaded
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+  // Number of unread notifications, including ones not loaded into the list
+  const [unreadCount, setUnreadCount] = useState(0);
+  // Highest notification sequence number seen, sent on reconnect to replay missed ones
+  const lastSeq = useRef(0);
+  // Settles once the latest first-page load finished, so a replay asks from its numbers
+  const firstPage = useRef(null);
+  // The one STOMP client of the app, shared with components watching topics
+  const clientRef = useRef(null);
+  // Topic subscriptions of components, restored whenever the client (re)connects
+  const topicSubscriptions = useRef(new Set());
+
+  const trackSeq = (notification) => {
+    if (notification.seq > lastSeq.current) lastSeq.current = notification.seq;
+  };
 
   // Configure Axios to always send credentials (cookies)
   axios.defaults.withCredentials = true;
 
-  // Fetch all notifications from the backend
+  // Fetch the first page of notifications from the backend
   const fetchNotifications = async () => {
     if (!userId) {
       setLoading(false);
@@ -20,10 +44,14 @@ export const NotificationProvider = ({ children, userId }) => {
     }
     try {
       setLoading(true);
-      const response = await axios.get(
+      const request = axios.get(
         `${import.meta.env.VITE_API_URL}/api/notifications/${userId}`
       );
+      firstPage.current = request.catch(() => {});
+      const response = await request;
       setNotifications(response.data);
+      setNextCursor(response.headers["x-next-cursor"] || null);
+      response.data.forEach(trackSeq);
     } catch (error) {
       console.error("Error fetching notifications:", error);
       if (error.response?.status === 401) {
@@ -34,11 +62,70 @@ export const NotificationProvider = ({ children, userId }) => {
     }
   };
 
+  // Append the next, older page of notifications
+  const loadMoreNotifications = async () => {
+    if (!userId || !nextCursor || loadingMore) return;
+    try {
+      setLoadingMore(true);
+      const response = await axios.get(
+        `${import.meta.env.VITE_API_URL}/api/notifications/${userId}`,
+        { params: { cursor: nextCursor } }
+      );
+      // A coalesced notification may already be listed if it was updated in between
+      setNotifications((prev) => {
+        const seen = new Set(prev.map((n) => n.id));
+        return [...prev, ...response.data.filter((n) => !seen.has(n.id))];
+      });
+      setNextCursor(response.headers["x-next-cursor"] || null);
+      response.data.forEach(trackSeq);
+    } catch (error) {
+      console.error("Error loading more notifications:", error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  // Fetch the unread count kept by the server
+  const fetchUnreadCount = async () => {
+    if (!userId) {
+      setUnreadCount(0);
+      return;
+    }
+    try {
+      const response = await axios.get(
+        `${import.meta.env.VITE_API_URL}/api/notifications/${userId}/unread-count`
+      );
+      setUnreadCount(response.data.unreadCount || 0);
+    } catch (error) {
+      console.error("Error fetching unread count:", error);
+    }
+  };
+
   // Fetch notifications when userId changes
   useEffect(() => {
     fetchNotifications();
+    fetchUnreadCount();
   }, [userId]);
 
+  const subscribeNow = (client, entry) => {
+    entry.handle = client.subscribe(entry.destination, (message) =>
+      entry.onMessage(JSON.parse(message.body))
+    );
+  };
+
+  // Subscribe to a topic over the shared connection; returns the unsubscribe function
+  const subscribeTopic = useCallback((destination, onMessage) => {
+    const entry = { destination, onMessage, handle: null };
+    topicSubscriptions.current.add(entry);
+    if (clientRef.current?.connected) subscribeNow(clientRef.current, entry);
+    return () => {
+      topicSubscriptions.current.delete(entry);
+      if (entry.handle && clientRef.current?.connected) {
+        entry.handle.unsubscribe();
+      }
+    };
+  }, []);
+
   // WebSocket setup for real-time updates
   useEffect(() => {
     if (!userId) return;
@@ -54,19 +141,40 @@ export const NotificationProvider = ({ children, userId }) => {
     });
 
     client.onConnect = () => {
-      client.subscribe(`/user/${userId}/notifications`, (message) => {
+      // Delivered to this user's sessions only; the server names sessions by user ID
+      client.subscribe(`/user/queue/notifications`, (message) => {
         const receivedNotification = JSON.parse(message.body);
-        setNotifications((prev) => {
-          if (prev.some((n) => n.id === receivedNotification.id)) return prev;
-          return [
-            {
-              ...receivedNotification,
-              read: receivedNotification.read || false,
-            },
-            ...prev,
-          ];
+        // Unread count updates share the destination but are not notifications
+        if (receivedNotification.type === "UNREAD_COUNT") {
+          setUnreadCount(receivedNotification.unreadCount);
+          return;
+        }
+        // Too much was missed while disconnected to replay; reload the first page
+        if (receivedNotification.type === "RESYNC") {
+          fetchNotifications();
+          fetchUnreadCount();
+          return;
+        }
+        trackSeq(receivedNotification);
+        // Coalesced notifications are updated in place, so replace any earlier copy
+        setNotifications((prev) => [
+          {
+            ...receivedNotification,
+            read: receivedNotification.read || false,
+          },
+          ...prev.filter((n) => n.id !== receivedNotification.id),
+        ]);
+      });
+      // Ask for anything pushed while this client was not connected. Always sent, even
+      // with lastSeq 0: the server then replays every numbered notification or says RESYNC
+      Promise.resolve(firstPage.current).then(() => {
+        if (!client.connected) return;
+        client.publish({
+          destination: "/app/notifications/replay",
+          body: JSON.stringify({ lastSeq: lastSeq.current }),
         });
       });
+      topicSubscriptions.current.forEach((entry) => subscribeNow(client, entry));
     };
 
     client.onStompError = (frame) => {
@@ -82,8 +190,10 @@ export const NotificationProvider = ({ children, userId }) => {
     };
 
     client.activate();
+    clientRef.current = client;
 
     return () => {
+      clientRef.current = null;
       client.deactivate();
     };
   }, [userId]);
@@ -103,29 +213,24 @@ export const NotificationProvider = ({ children, userId }) => {
             i === index ? { ...notif, read: true } : notif
           )
         );
+        // The server pushes the exact count as well
+        setUnreadCount((prev) => Math.max(0, prev - 1));
       } catch (error) {
         console.error("Error marking notification as read:", error);
       }
     }
   };
 
-  // Mark all notifications as read and sync with backend
+  // Mark all notifications as read, including ones not loaded yet, with one request
   const markAllAsRead = async () => {
     try {
-      await Promise.all(
-        notifications
-          .filter((notif) => !notif.read)
-          .map((notif) =>
-            axios.post(
-              `${import.meta.env.VITE_API_URL}/api/notifications/read/${
-                notif.id
-              }`
-            )
-          )
+      await axios.post(
+        `${import.meta.env.VITE_API_URL}/api/notifications/${userId}/read-all`
       );
       setNotifications((prev) =>
         prev.map((notif) => ({ ...notif, read: true }))
       );
+      setUnreadCount(0);
     } catch (error) {
       console.error("Error marking all notifications as read:", error);
     }
@@ -133,7 +238,17 @@ export const NotificationProvider = ({ children, userId }) => {
 
   return (
     <NotificationContext.Provider
-      value={{ notifications, markAsRead, markAllAsRead, loading }}
+      value={{
+        notifications,
+        unreadCount,
+        markAsRead,
+        markAllAsRead,
+        subscribeTopic,
+        loadMoreNotifications,
+        hasMore: Boolean(nextCursor),
+        loadingMore,
+        loading,
+      }}
     >
       {children}
     </NotificationContext.Provider>
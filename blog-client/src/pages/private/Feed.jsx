@@ -3,6 +3,7 @@ import axios from "axios";
 import { useAuth } from "../../context/AuthContext";
 import PostCard from "../../components/posts/PostCard";
 import Loading from "../../components/ui/Loading";
+import hydratePosts from "../../components/posts/hydratePosts";
 
 const Feed = () => {
   const [activeTab, setActiveTab] = useState("for-you");
@@ -12,34 +13,43 @@ const Feed = () => {
   const [savedPosts, setSavedPosts] = useState([]);
   const { user } = useAuth();
 
+  // Cursor of the next page of each tab, taken from the X-Next-Cursor header; null on the last page
+  const [nextCursors, setNextCursors] = useState({
+    "for-you": null,
+    following: null,
+  });
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  // Fetch one page of a feed endpoint together with the cursor of the page after it
+  const fetchFeedPage = async (path, cursor) => {
+    const response = await axios.get(
+      `${import.meta.env.VITE_API_URL}${path}`,
+      { params: { cursor: cursor || undefined }, withCredentials: true }
+    );
+    const pagePosts = Array.isArray(response.data) ? response.data : [];
+    return {
+      posts: await hydratePosts(pagePosts),
+      nextCursor: response.headers["x-next-cursor"] || null,
+    };
+  };
+
   useEffect(() => {
     const fetchPosts = async () => {
       try {
         setLoading(true);
 
-        // Fetch all posts for "For You" tab
-        const allPostsResponse = await axios.get(
-          `${import.meta.env.VITE_API_URL}/posts/feed`,
-          { withCredentials: true }
-        );
-        const postsData = Array.isArray(allPostsResponse.data)
-          ? allPostsResponse.data
-          : [];
-        const postsWithCounts = await fetchPostsWithCounts(postsData);
-        setPosts(postsWithCounts);
+        // Fetch the first page of all posts for "For You" tab
+        const forYouPage = await fetchFeedPage("/posts/feed");
+        setPosts(forYouPage.posts);
 
-        // Fetch following posts
-        const followingPostsResponse = await axios.get(
-          `${import.meta.env.VITE_API_URL}/posts/following`,
-          { withCredentials: true }
-        );
-        const followingPostsData = Array.isArray(followingPostsResponse.data)
-          ? followingPostsResponse.data
-          : [];
-        const followingPostsWithCounts = await fetchPostsWithCounts(
-          followingPostsData
-        );
-        setFollowingPosts(followingPostsWithCounts);
+        // Fetch the first page of following posts
+        const followingPage = await fetchFeedPage("/posts/following");
+        setFollowingPosts(followingPage.posts);
+
+        setNextCursors({
+          "for-you": forYouPage.nextCursor,
+          following: followingPage.nextCursor,
+        });
       } catch (error) {
         console.error("Failed to fetch posts:", error);
       } finally {
@@ -50,6 +60,36 @@ const Feed = () => {
     fetchPosts();
   }, []);
 
+  // Append the next page of the active tab
+  const loadMorePosts = async () => {
+    const cursor = nextCursors[activeTab];
+    if (!cursor || loadingMore) return;
+
+    const tab = activeTab;
+    try {
+      setLoadingMore(true);
+      const page = await fetchFeedPage(
+        tab === "for-you" ? "/posts/feed" : "/posts/following",
+        cursor
+      );
+      // A post may reappear on a later page if it moved between requests
+      const appendNew = (prevPosts) => {
+        const seen = new Set(prevPosts.map((post) => post.id));
+        return [...prevPosts, ...page.posts.filter((post) => !seen.has(post.id))];
+      };
+      if (tab === "for-you") {
+        setPosts(appendNew);
+      } else {
+        setFollowingPosts(appendNew);
+      }
+      setNextCursors((prev) => ({ ...prev, [tab]: page.nextCursor }));
+    } catch (error) {
+      console.error("Failed to load more posts:", error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     const fetchSavedPostsDetails = async () => {
       if (!user?.id) return;
@@ -79,44 +119,6 @@ const Feed = () => {
     fetchSavedPostsDetails();
   }, [user]);
 
-  // Helper function to fetch like and comment counts for posts
-  const fetchPostsWithCounts = async (postsArray) => {
-    try {
-      const postsWithCountsPromises = postsArray.map(async (post) => {
-        const likesResponse = await axios.get(
-          `${import.meta.env.VITE_API_URL}/posts/${post.id}/like-count`,
-          { withCredentials: true }
-        );
-        const commentsResponse = await axios.get(
-          `${import.meta.env.VITE_API_URL}/comments/${post.id}/all`,
-          { withCredentials: true }
-        );
-        let hasLiked = false;
-        if (user) {
-          const userLikeResponse = await axios.get(
-            `${import.meta.env.VITE_API_URL}/posts/${post.id}/has-liked`,
-            { withCredentials: true }
-          );
-          hasLiked = userLikeResponse.data;
-        }
-
-        return {
-          ...post,
-          likeCount: likesResponse.data,
-          commentCount: Array.isArray(commentsResponse.data)
-            ? commentsResponse.data.length
-            : 0,
-          hasLiked: hasLiked,
-        };
-      });
-
-      return await Promise.all(postsWithCountsPromises);
-    } catch (error) {
-      console.error("Error fetching post counts:", error);
-      return postsArray;
-    }
-  };
-
   // Function to handle liking a post
   const handleLikePost = async (postId) => {
     if (!user) {
@@ -249,6 +251,22 @@ const Feed = () => {
             </div>
           )}
         </div>
+
+        {nextCursors[activeTab] && (
+          <div className="flex justify-center">
+            <button
+              onClick={loadMorePosts}
+              disabled={loadingMore}
+              className={`px-4 py-2 text-sm font-medium rounded-md border border-gray-200 ${
+                loadingMore
+                  ? "text-gray-400 cursor-not-allowed"
+                  : "text-gray-700 hover:bg-gray-50"
+              }`}
+            >
+              {loadingMore ? "Loading..." : "Load more"}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
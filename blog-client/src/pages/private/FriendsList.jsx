@@ -10,6 +10,7 @@ const FriendsList = () => {
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState("");
   const [filterOption, setFilterOption] = useState("all");
+  const [followerIds, setFollowerIds] = useState(new Set());
 
   const fetchData = useCallback(async () => {
     try {
@@ -20,14 +21,18 @@ const FriendsList = () => {
       const loggedInUserData = loggedInResponse.data;
       setLoggedInUser(loggedInUserData);
 
-      const usersResponse = await axios.get(
-        `${import.meta.env.VITE_API_URL}/user/users`,
-        { withCredentials: true }
+      const followingResponse = await axios.get(
+        `${import.meta.env.VITE_API_URL}/user/${loggedInUserData.id}/following`,
+        { params: { limit: 100 }, withCredentials: true }
       );
+      const followingUsers = followingResponse.data;
 
-      const followingUsers = usersResponse.data.filter((user) =>
-        loggedInUserData.following?.includes(user.id)
+      // Followers of the logged-in user, to tell which friends follow back
+      const followersResponse = await axios.get(
+        `${import.meta.env.VITE_API_URL}/user/${loggedInUserData.id}/followers`,
+        { params: { limit: 100 }, withCredentials: true }
       );
+      setFollowerIds(new Set(followersResponse.data.map((user) => user.id)));
 
       setUsers(followingUsers);
       setFilteredUsers(followingUsers);
@@ -43,13 +48,6 @@ const FriendsList = () => {
   }, [fetchData]);
 
   const handleFollowToggle = (userId, isFollowing) => {
-    setLoggedInUser((prev) => ({
-      ...prev,
-      following: isFollowing
-        ? [...(prev.following || []), userId]
-        : (prev.following || []).filter((id) => id !== userId),
-    }));
-
     if (!isFollowing) {
       setUsers((prev) => prev.filter((user) => user.id !== userId));
       setFilteredUsers((prev) => prev.filter((user) => user.id !== userId));
@@ -81,12 +79,10 @@ const FriendsList = () => {
 
     switch (filter) {
       case "followers":
-        result = result.filter((user) => (user.followers?.length || 0) > 0);
+        result = result.filter((user) => (user.followerCount || 0) > 0);
         break;
       case "mutual":
-        result = result.filter((user) =>
-          user.following?.includes(loggedInUser?.id)
-        );
+        result = result.filter((user) => followerIds.has(user.id));
         break;
       default:
         break;
@@ -157,6 +153,7 @@ const FriendsList = () => {
               key={user.id}
               user={user}
               loggedInUser={loggedInUser}
+              following={true}
               onFollowToggle={handleFollowToggle}
             />
           ))}
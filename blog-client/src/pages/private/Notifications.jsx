@@ -2,8 +2,15 @@ import React from "react";
 import { useNotifications } from "../../context/NotificationContext";
 
 const Notifications = () => {
-  const { notifications, markAsRead, markAllAsRead, loading } =
-    useNotifications();
+  const {
+    notifications,
+    markAsRead,
+    markAllAsRead,
+    loadMoreNotifications,
+    hasMore,
+    loadingMore,
+    loading,
+  } = useNotifications();
 
   if (loading) {
     return (
@@ -71,6 +78,22 @@ const Notifications = () => {
           <p className="text-sm mt-2">You're all caught up!</p>
         </div>
       )}
+
+      {hasMore && (
+        <div className="flex justify-center mt-6">
+          <button
+            onClick={loadMoreNotifications}
+            disabled={loadingMore}
+            className={`px-4 py-2 text-sm font-medium rounded-md border border-gray-200 ${
+              loadingMore
+                ? "text-gray-400 cursor-not-allowed"
+                : "text-gray-700 hover:bg-gray-50"
+            }`}
+          >
+            {loadingMore ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
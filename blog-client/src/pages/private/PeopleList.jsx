@@ -20,16 +20,12 @@ const PeopleList = () => {
       const loggedInUserData = loggedInResponse.data;
       setLoggedInUser(loggedInUserData);
 
+      // The server excludes the logged-in user and everyone they already follow
       const usersResponse = await axios.get(
-        `${import.meta.env.VITE_API_URL}/user/users`,
-        { withCredentials: true }
-      );
-
-      const notFollowingUsers = usersResponse.data.filter(
-        (user) =>
-          user.id !== loggedInUserData.id &&
-          !loggedInUserData.following?.includes(user.id)
+        `${import.meta.env.VITE_API_URL}/user/not-following`,
+        { params: { page: 0, size: 100 }, withCredentials: true }
       );
+      const notFollowingUsers = usersResponse.data.content || [];
 
       setUsers(notFollowingUsers);
       setFilteredUsers(notFollowingUsers);
@@ -45,13 +41,6 @@ const PeopleList = () => {
   }, [fetchData]);
 
   const handleFollowToggle = (userId, isFollowing) => {
-    setLoggedInUser((prev) => ({
-      ...prev,
-      following: isFollowing
-        ? [...(prev.following || []), userId]
-        : (prev.following || []).filter((id) => id !== userId),
-    }));
-
     if (isFollowing) {
       setUsers((prev) => prev.filter((user) => user.id !== userId));
       setFilteredUsers((prev) => prev.filter((user) => user.id !== userId));
@@ -85,7 +74,7 @@ const PeopleList = () => {
     // Apply additional filter options
     switch (filter) {
       case "followers":
-        result = result.filter((user) => (user.followers?.length || 0) > 0);
+        result = result.filter((user) => (user.followerCount || 0) > 0);
         break;
       default:
         break;
@@ -155,6 +144,7 @@ const PeopleList = () => {
               key={user.id}
               user={user}
               loggedInUser={loggedInUser}
+              following={false}
               onFollowToggle={handleFollowToggle}
             />
           ))}
@@ -14,6 +14,7 @@ import {
   Trash2,
 } from "lucide-react";
 import PostCard from "../../components/posts/PostCard";
+import hydratePosts from "../../components/posts/hydratePosts";
 import Swal from "sweetalert2";
 import UserImg from "../../assets/images/user.png";
 
@@ -28,6 +29,7 @@ const ProfilePage = () => {
   const [followersDetails, setFollowersDetails] = useState([]);
   const [followingDetails, setFollowingDetails] = useState([]);
   const [savedPosts, setSavedPosts] = useState([]);
+  const [isFollowing, setIsFollowing] = useState(false);
   const navigate = useNavigate();
 
   const statusOptions = [
@@ -42,7 +44,6 @@ const ProfilePage = () => {
     { value: "Prefer Not to Say", emoji: "🤐", description: "Private matters" },
   ];
 
-  const isFollowing = loggedInUser?.following?.includes(user?.id);
   const isOwnProfile = loggedInUser && user && loggedInUser.id === user.id;
 
   const followUser = async (followeeId) => {
@@ -54,9 +55,10 @@ const ProfilePage = () => {
         {},
         { withCredentials: true }
       );
-      setLoggedInUser((prevUser) => ({
+      setIsFollowing(true);
+      setUser((prevUser) => ({
         ...prevUser,
-        following: [...(prevUser.following || []), followeeId],
+        followerCount: (prevUser.followerCount || 0) + 1,
       }));
     } catch (error) {
       console.error("Failed to follow user:", error);
@@ -72,9 +74,10 @@ const ProfilePage = () => {
         {},
         { withCredentials: true }
       );
-      setLoggedInUser((prevUser) => ({
+      setIsFollowing(false);
+      setUser((prevUser) => ({
         ...prevUser,
-        following: prevUser.following.filter((id) => id !== followeeId),
+        followerCount: Math.max((prevUser.followerCount || 0) - 1, 0),
       }));
     } catch (error) {
       console.error("Failed to unfollow user:", error);
@@ -173,29 +176,28 @@ const ProfilePage = () => {
           `${import.meta.env.VITE_API_URL}/posts/user/${id}`,
           { withCredentials: true }
         );
-        setPosts(postsResponse.data);
-
-        if (userResponse.data.followers?.length > 0) {
-          const followersResponse = await axios.post(
-            `${import.meta.env.VITE_API_URL}/user/details`,
-            userResponse.data.followers,
-            { withCredentials: true }
-          );
-          setFollowersDetails(followersResponse.data);
-        } else {
-          setFollowersDetails([]);
-        }
-
-        if (userResponse.data.following?.length > 0) {
-          const followingResponse = await axios.post(
-            `${import.meta.env.VITE_API_URL}/user/details`,
-            userResponse.data.following,
-            { withCredentials: true }
-          );
-          setFollowingDetails(followingResponse.data);
-        } else {
-          setFollowingDetails([]);
-        }
+        setPosts(await hydratePosts(postsResponse.data));
+
+        const followsResponse = await axios.get(
+          `${import.meta.env.VITE_API_URL}/user/${
+            loggedInUserResponse.data.id
+          }/follows/${id}`,
+          { withCredentials: true }
+        );
+        setIsFollowing(followsResponse.data === true);
+
+        // Most recent first; older pages are available through the X-Next-Cursor header
+        const followersResponse = await axios.get(
+          `${import.meta.env.VITE_API_URL}/user/${id}/followers`,
+          { withCredentials: true }
+        );
+        setFollowersDetails(followersResponse.data);
+
+        const followingResponse = await axios.get(
+          `${import.meta.env.VITE_API_URL}/user/${id}/following`,
+          { withCredentials: true }
+        );
+        setFollowingDetails(followingResponse.data);
 
         // Fetch saved posts (assuming full objects for consistency)
         const savedPostsResponse = await axios.get(
@@ -282,13 +284,13 @@ const ProfilePage = () => {
             </div>
             <div>
               <p className="text-lg font-bold text-blue-600">
-                {user.followers?.length || 0}
+                {user.followerCount || 0}
               </p>
               <p className="text-gray-600 text-xs">Followers</p>
             </div>
             <div>
               <p className="text-lg font-bold text-blue-600">
-                {user.following?.length || 0}
+                {user.followingCount || 0}
               </p>
               <p className="text-gray-600 text-xs">Following</p>
             </div>
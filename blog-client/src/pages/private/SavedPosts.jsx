@@ -2,6 +2,7 @@ import React, { useState, useEffect, useContext } from "react";
 import axios from "axios";
 import { useAuth } from "../../context/AuthContext";
 import PostCard from "../../components/posts/PostCard";
+import hydratePosts from "../../components/posts/hydratePosts";
 
 const SavedPosts = () => {
   const [savedPosts, setSavedPosts] = useState([]);
@@ -32,9 +33,9 @@ const SavedPosts = () => {
             );
             const postResponses = await Promise.all(postPromises);
             const fullPosts = postResponses.map((res) => res.data);
-            setSavedPosts(fullPosts);
+            setSavedPosts(await hydratePosts(fullPosts));
           } else {
-            setSavedPosts(savedResponse.data);
+            setSavedPosts(await hydratePosts(savedResponse.data));
           }
         } else {
           console.warn("Unexpected API response format:", savedResponse.data);
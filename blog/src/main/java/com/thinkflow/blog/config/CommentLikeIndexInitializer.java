@@ -0,0 +1,65 @@
+package com.thinkflow.blog.config;
+
+import com.thinkflow.blog.models.CommentLike;
+import com.thinkflow.blog.repositories.CommentLikeRepository;
+import com.thinkflow.blog.repositories.CommentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Creates the unique (commentId, user) index on comment likes before the
+ * application serves requests. Duplicate likes left by the old read-then-write
+ * toggle are removed first and the affected comments' like counts recomputed.
+ */
+@Component
+public class CommentLikeIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentLikeIndexInitializer.class);
+
+    static final String INDEX_NAME = "comment_user";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CommentLikeRepository commentLikeRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @PostConstruct
+    public void ensureUniqueIndex() {
+        IndexOperations indexOps = mongoTemplate.indexOps(CommentLike.class);
+        for (IndexInfo info : indexOps.getIndexInfo()) {
+            if (INDEX_NAME.equals(info.getName())) {
+                if (info.isUnique()) {
+                    return;
+                }
+                // Earlier versions created this index without the unique flag
+                indexOps.dropIndex(INDEX_NAME);
+            }
+        }
+
+        Set<String> affectedCommentIds = commentLikeRepository.removeDuplicates();
+        if (!affectedCommentIds.isEmpty()) {
+            logger.warn("Removed duplicate likes on {} comments", affectedCommentIds.size());
+            commentRepository.rebuildLikeCounts(affectedCommentIds);
+        }
+
+        indexOps.ensureIndex(new Index()
+                .on("commentId", Sort.Direction.ASC)
+                .on("user.$id", Sort.Direction.ASC)
+                .unique()
+                .named(INDEX_NAME));
+    }
+}
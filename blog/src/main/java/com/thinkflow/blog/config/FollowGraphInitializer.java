@@ -0,0 +1,68 @@
+package com.thinkflow.blog.config;
+
+import com.thinkflow.blog.models.Migration;
+import com.thinkflow.blog.models.User;
+import com.thinkflow.blog.repositories.FollowRepository;
+import com.thinkflow.blog.repositories.MigrationRepository;
+import com.thinkflow.blog.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Moves the follower and following lists that used to be embedded in users into the
+ * follows collection before the application serves requests, then derives the users'
+ * follow counts from the edges and drops the lists and their multikey indexes. Every
+ * step is idempotent, so an interrupted migration simply runs again on the next start.
+ * Once it has finished it is recorded as done, and later starts skip the users scan.
+ */
+@Component
+public class FollowGraphInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowGraphInitializer.class);
+
+    /** Names of the multikey indexes that covered the embedded lists. */
+    static final Set<String> LIST_INDEXES = Set.of("followers", "following");
+
+    static final String MIGRATION = "follow-edges";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private MigrationRepository migrationRepository;
+
+    @PostConstruct
+    public void migrateFollowLists() {
+        if (migrationRepository.existsById(MIGRATION)) {
+            return;
+        }
+        if (userRepository.hasFollowLists()) {
+            followRepository.copyFromUserLists();
+            userRepository.rebuildFollowCounts();
+            long migrated = userRepository.unsetFollowLists();
+            logger.info("Moved the follow lists of {} users into the follows collection", migrated);
+        }
+
+        IndexOperations indexOps = mongoTemplate.indexOps(User.class);
+        for (IndexInfo info : indexOps.getIndexInfo()) {
+            if (LIST_INDEXES.contains(info.getName())) {
+                indexOps.dropIndex(info.getName());
+            }
+        }
+        migrationRepository.save(new Migration(MIGRATION));
+    }
+}
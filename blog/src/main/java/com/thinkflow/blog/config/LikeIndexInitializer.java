@@ -0,0 +1,65 @@
+package com.thinkflow.blog.config;
+
+import com.thinkflow.blog.models.Like;
+import com.thinkflow.blog.repositories.LikeRepository;
+import com.thinkflow.blog.services.EngagementCounterService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Creates the unique (postId, user) index on likes before the application
+ * serves requests. Duplicate likes left by the old read-then-write toggle are
+ * removed first, since the index cannot be built while they exist.
+ */
+@Component
+public class LikeIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeIndexInitializer.class);
+
+    static final String INDEX_NAME = "post_user";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private EngagementCounterService engagementCounterService;
+
+    @PostConstruct
+    public void ensureUniqueIndex() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Like.class);
+        for (IndexInfo info : indexOps.getIndexInfo()) {
+            if (INDEX_NAME.equals(info.getName())) {
+                if (info.isUnique()) {
+                    return;
+                }
+                // Earlier versions created this index without the unique flag
+                indexOps.dropIndex(INDEX_NAME);
+            }
+        }
+
+        Set<String> affectedPostIds = likeRepository.removeDuplicates();
+        if (!affectedPostIds.isEmpty()) {
+            logger.warn("Removed duplicate likes on {} posts", affectedPostIds.size());
+            engagementCounterService.rebuild(affectedPostIds);
+        }
+
+        indexOps.ensureIndex(new Index()
+                .on("postId", Sort.Direction.ASC)
+                .on("user.$id", Sort.Direction.ASC)
+                .unique()
+                .named(INDEX_NAME));
+    }
+}
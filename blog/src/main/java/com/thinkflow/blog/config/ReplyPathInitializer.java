@@ -0,0 +1,42 @@
+package com.thinkflow.blog.config;
+
+import com.thinkflow.blog.models.Migration;
+import com.thinkflow.blog.repositories.MigrationRepository;
+import com.thinkflow.blog.repositories.ReplyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives replies created before threaded replies a materialized path before the
+ * application serves requests, so they show up in tree reads as top-level replies.
+ * No index leads on path, so the backfill scans every reply; it runs once and is
+ * then recorded as done.
+ */
+@Component
+public class ReplyPathInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplyPathInitializer.class);
+
+    static final String MIGRATION = "reply-paths";
+
+    @Autowired
+    private ReplyRepository replyRepository;
+
+    @Autowired
+    private MigrationRepository migrationRepository;
+
+    @PostConstruct
+    public void backfillPaths() {
+        if (migrationRepository.existsById(MIGRATION)) {
+            return;
+        }
+        long updated = replyRepository.backfillPaths();
+        if (updated > 0) {
+            logger.info("Backfilled the path of {} replies", updated);
+        }
+        migrationRepository.save(new Migration(MIGRATION));
+    }
+}
@@ -0,0 +1,48 @@
+package com.thinkflow.blog.config;
+
+import com.thinkflow.blog.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Names each WebSocket session after the MongoDB ID of the logged-in user, so that
+ * messages sent with convertAndSendToUser(userId, ...) reach all of that user's
+ * sessions, on this instance or, with the broker relay, on any other.
+ */
+@Component
+public class UserIdHandshakeHandler extends DefaultHandshakeHandler {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+                                      Map<String, Object> attributes) {
+        if (!(request.getPrincipal() instanceof OAuth2AuthenticationToken token)) {
+            return null; // Anonymous session, receives topic messages only
+        }
+        OAuth2User principal = token.getPrincipal();
+        String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        return userRepository.findByProviderId(providerId)
+                .map(user -> (Principal) new UserIdPrincipal(user.getId()))
+                .orElse(null);
+    }
+
+    /**
+     * Principal of a WebSocket session, named by the user's MongoDB ID
+     */
+    public record UserIdPrincipal(String name) implements Principal {
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -1,27 +1,128 @@
 package com.thinkflow.blog.config;
 
-import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * STOMP over WebSocket configuration. With websocket.broker.mode=simple messages are
+ * routed by the in-memory broker, which only reaches sockets connected to this
+ * instance. With websocket.broker.mode=relay they go through an external STOMP broker
+ * (RabbitMQ, ActiveMQ), and user destinations are resolved across instances: the user
+ * registries are shared over the broker, and messages for users connected elsewhere
+ * are broadcast to the other instances.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private UserIdHandshakeHandler userIdHandshakeHandler;
+
+    @Autowired
+    private WebSocketSessionMonitor webSocketSessionMonitor;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.client-login:guest}")
+    private String clientLogin;
+
+    @Value("${websocket.broker.relay.client-passcode:guest}")
+    private String clientPasscode;
+
+    @Value("${websocket.broker.relay.system-login:guest}")
+    private String systemLogin;
+
+    @Value("${websocket.broker.relay.system-passcode:guest}")
+    private String systemPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String virtualHost;
+
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.outbound.threads:8}")
+    private int outboundThreads;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/user"); // Enable broker for topics and user-specific destinations
+        switch (brokerMode.toLowerCase()) {
+            case "simple" -> config.enableSimpleBroker("/topic", "/queue");
+            case "relay" -> {
+                StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                        .setRelayHost(relayHost)
+                        .setRelayPort(relayPort)
+                        .setClientLogin(clientLogin)
+                        .setClientPasscode(clientPasscode)
+                        .setSystemLogin(systemLogin)
+                        .setSystemPasscode(systemPasscode)
+                        // Lets every instance resolve user destinations for users connected to any instance
+                        .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                        .setUserRegistryBroadcast("/topic/simp-user-registry");
+                if (!virtualHost.isBlank()) {
+                    relay.setVirtualHost(virtualHost);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown websocket.broker.mode: " + brokerMode);
+        }
         config.setApplicationDestinationPrefixes("/app"); // Prefix for client messages
         config.setUserDestinationPrefix("/user"); // Prefix for user-specific messages
     }
 
+    /**
+     * A session whose socket has not accepted a frame within the send time limit, or
+     * whose unsent frames exceed the buffer limit, is closed instead of buffered further.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMillis)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(webSocketSessionMonitor::decorate);
+    }
+
+    /**
+     * Bounds the executor writing to client sessions; the monitor additionally caps
+     * how much of its queue a single session may take.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundThreads)
+                .maxPoolSize(outboundThreads)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(webSocketSessionMonitor);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
+                .setHandshakeHandler(userIdHandshakeHandler)
                 .setAllowedOrigins("http://localhost:5173")
                 .withSockJS();
     }
-}
\ No newline at end of file
+}
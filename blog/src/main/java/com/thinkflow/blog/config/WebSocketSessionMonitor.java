@@ -0,0 +1,227 @@
+package com.thinkflow.blog.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Guards the outbound side of every WebSocket session against slow consumers and
+ * keeps per-session metrics.
+ * <p>
+ * As an interceptor on the clientOutboundChannel, it caps the number of messages a
+ * session may have waiting for an outbound thread: messages beyond the cap are dropped
+ * and counted, and a session that keeps dropping is closed. As a WebSocket handler
+ * decorator, it times every frame actually written to the socket. Together with the
+ * transport's send-time and send-buffer limits, one stalled client cannot make the
+ * server hold an unbounded backlog for it.
+ */
+@Component
+public class WebSocketSessionMonitor implements ExecutorChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketSessionMonitor.class);
+
+    @Value("${websocket.outbound.session-queue-cap:500}")
+    private int sessionQueueCap;
+
+    @Value("${websocket.outbound.evict-after-drops:100}")
+    private int evictAfterDrops;
+
+    private final Map<String, SessionStats> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Wraps the STOMP sub-protocol handler so sessions are registered and their sends timed.
+     * @param handler Handler to decorate
+     * @return The decorated handler
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionStats stats = new SessionStats(session);
+                sessions.put(session.getId(), stats);
+                super.afterConnectionEstablished(new TimedSession(session, stats));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SessionStats stats = statsOf(message);
+        if (stats == null) {
+            return message;
+        }
+        if (stats.pendingMessages.incrementAndGet() > sessionQueueCap) {
+            stats.pendingMessages.decrementAndGet();
+            drop(stats);
+            return null;
+        }
+        stats.queuedBytes.addAndGet(sizeOf(message));
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (ex != null) {
+            // Rejected by the outbound executor, so afterMessageHandled will not run
+            SessionStats stats = statsOf(message);
+            if (stats != null) {
+                release(stats, message);
+                drop(stats);
+            }
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        SessionStats stats = statsOf(message);
+        if (stats != null) {
+            release(stats, message);
+        }
+    }
+
+    /**
+     * @return Metrics of every open session, those with the largest outbound backlog first
+     */
+    public List<SessionSnapshot> getSessions() {
+        return sessions.values().stream()
+                .map(SessionStats::snapshot)
+                .sorted(Comparator.comparingLong(SessionSnapshot::getQueuedBytes).reversed())
+                .toList();
+    }
+
+    private SessionStats statsOf(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId == null ? null : sessions.get(sessionId);
+    }
+
+    private void release(SessionStats stats, Message<?> message) {
+        stats.pendingMessages.decrementAndGet();
+        stats.queuedBytes.addAndGet(-sizeOf(message));
+    }
+
+    private void drop(SessionStats stats) {
+        stats.droppedFrames.increment();
+        if (stats.consecutiveDrops.incrementAndGet() == evictAfterDrops) {
+            logger.warn("Closing slow WebSocket session {} after {} dropped frames", stats.session.getId(), evictAfterDrops);
+            try {
+                stats.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                logger.debug("Failed to close slow WebSocket session {}", stats.session.getId(), e);
+            }
+        }
+    }
+
+    private static int sizeOf(Message<?> message) {
+        return message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+    }
+
+    /** Counters of one open session. */
+    private static final class SessionStats {
+        private final WebSocketSession session;
+        private final AtomicInteger pendingMessages = new AtomicInteger();
+        private final AtomicLong queuedBytes = new AtomicLong();
+        private final AtomicInteger consecutiveDrops = new AtomicInteger();
+        private final LongAdder droppedFrames = new LongAdder();
+        private final LongAdder sentFrames = new LongAdder();
+        private final LongAdder sendNanos = new LongAdder();
+        private final AtomicLong maxSendNanos = new AtomicLong();
+
+        private SessionStats(WebSocketSession session) {
+            this.session = session;
+        }
+
+        private void recordSend(long nanos) {
+            sentFrames.increment();
+            sendNanos.add(nanos);
+            maxSendNanos.accumulateAndGet(nanos, Math::max);
+            consecutiveDrops.set(0);
+        }
+
+        private SessionSnapshot snapshot() {
+            long sent = sentFrames.sum();
+            return new SessionSnapshot(session.getId(),
+                    session.getPrincipal() == null ? null : session.getPrincipal().getName(),
+                    pendingMessages.get(), queuedBytes.get(), droppedFrames.sum(), sent,
+                    sent == 0 ? 0 : sendNanos.sum() / sent / 1000, maxSendNanos.get() / 1000);
+        }
+    }
+
+    /** Session passed to the STOMP handler, timing each frame written to the socket. */
+    private static final class TimedSession extends WebSocketSessionDecorator {
+        private final SessionStats stats;
+
+        private TimedSession(WebSocketSession session, SessionStats stats) {
+            super(session);
+            this.stats = stats;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            long start = System.nanoTime();
+            super.sendMessage(message);
+            stats.recordSend(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Metrics of one WebSocket session
+     */
+    public static class SessionSnapshot {
+        private final String sessionId;
+        private final String userId;
+        private final int queuedMessages;
+        private final long queuedBytes;
+        private final long droppedFrames;
+        private final long sentFrames;
+        private final long avgSendMicros;
+        private final long maxSendMicros;
+
+        public SessionSnapshot(String sessionId, String userId, int queuedMessages, long queuedBytes,
+                               long droppedFrames, long sentFrames, long avgSendMicros, long maxSendMicros) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+            this.queuedMessages = queuedMessages;
+            this.queuedBytes = queuedBytes;
+            this.droppedFrames = droppedFrames;
+            this.sentFrames = sentFrames;
+            this.avgSendMicros = avgSendMicros;
+            this.maxSendMicros = maxSendMicros;
+        }
+
+        public String getSessionId() { return sessionId; }
+        public String getUserId() { return userId; }
+        public int getQueuedMessages() { return queuedMessages; }
+        public long getQueuedBytes() { return queuedBytes; }
+        public long getDroppedFrames() { return droppedFrames; }
+        public long getSentFrames() { return sentFrames; }
+        public long getAvgSendMicros() { return avgSendMicros; }
+        public long getMaxSendMicros() { return maxSendMicros; }
+    }
+}
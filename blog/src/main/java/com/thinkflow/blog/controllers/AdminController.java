@@ -0,0 +1,167 @@
+package com.thinkflow.blog.controllers;
+
+import com.thinkflow.blog.config.WebSocketSessionMonitor;
+import com.thinkflow.blog.models.DeletionJob;
+import com.thinkflow.blog.models.User;
+import com.thinkflow.blog.repositories.DeletionJobRepository;
+import com.thinkflow.blog.repositories.UserRepository;
+import com.thinkflow.blog.services.EngagementCounterService;
+import com.thinkflow.blog.services.NotificationPipeline;
+import com.thinkflow.blog.services.NotificationReplayLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for maintenance operations restricted to the configured admin users
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired
+    private EngagementCounterService engagementCounterService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DeletionJobRepository deletionJobRepository;
+
+    @Autowired
+    private NotificationPipeline notificationPipeline;
+
+    @Autowired
+    private NotificationReplayLog notificationReplayLog;
+
+    @Autowired
+    private WebSocketSessionMonitor webSocketSessionMonitor;
+
+    @Value("${admin.user-ids:}")
+    private String[] adminUserIds;
+
+    /**
+     * Recompute the like and comment counters of every post
+     * @param principal Authenticated user information
+     * @return Number of posts rebuilt with HTTP status
+     */
+    @PostMapping("/counters/rebuild")
+    public ResponseEntity<?> rebuildCounters(@AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            long rebuilt = engagementCounterService.rebuildAll();
+            return ResponseEntity.ok(Map.of("postsRebuilt", rebuilt));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while rebuilding counters");
+        }
+    }
+
+    /**
+     * List deletion jobs with their progress
+     * @param targetId ID of a deleted post, comment or user; if absent, unfinished jobs are listed
+     * @param principal Authenticated user information
+     * @return Jobs with status, current step and documents processed, with HTTP status
+     */
+    @GetMapping("/deletion-jobs")
+    public ResponseEntity<?> getDeletionJobs(
+            @RequestParam(required = false) String targetId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            List<DeletionJob> jobs = targetId != null
+                    ? deletionJobRepository.findByTargetIdOrderByCreatedAtDesc(targetId)
+                    : deletionJobRepository.findByStatusInOrderByCreatedAtAsc(
+                            List.of(DeletionJob.Status.PENDING, DeletionJob.Status.RUNNING));
+            return ResponseEntity.ok(jobs);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while fetching deletion jobs");
+        }
+    }
+
+    /**
+     * Get the progress of one deletion job
+     * @param jobId ID of the job
+     * @param principal Authenticated user information
+     * @return The job with HTTP status
+     */
+    @GetMapping("/deletion-jobs/{jobId}")
+    public ResponseEntity<?> getDeletionJob(
+            @PathVariable String jobId,
+            @AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return deletionJobRepository.findById(jobId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get the notification pipeline's queue depth and throughput counters
+     * @param principal Authenticated user information
+     * @return Pipeline counters with HTTP status
+     */
+    @GetMapping("/notifications/pipeline")
+    public ResponseEntity<?> getNotificationPipelineStats(@AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(notificationPipeline.getStats());
+    }
+
+    /**
+     * Get how notification replays on reconnect were served
+     * @param principal Authenticated user information
+     * @return Ring, range query and resync counts with HTTP status
+     */
+    @GetMapping("/notifications/replay")
+    public ResponseEntity<?> getNotificationReplayStats(@AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(notificationReplayLog.getStats());
+    }
+
+    /**
+     * Get outbound metrics of the open WebSocket sessions, largest backlog first
+     * @param principal Authenticated user information
+     * @return Per-session queued bytes, dropped frames and send latency with HTTP status
+     */
+    @GetMapping("/websocket/sessions")
+    public ResponseEntity<?> getWebSocketSessions(@AuthenticationPrincipal OAuth2User principal) {
+        if (!isAdmin(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(webSocketSessionMonitor.getSessions());
+    }
+
+    /**
+     * Check whether the authenticated user is listed in admin.user-ids
+     * @param principal Authenticated user information
+     * @return True if the user is an admin
+     */
+    private boolean isAdmin(OAuth2User principal) {
+        if (principal == null) {
+            return false;
+        }
+        String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+        return userRepository.findByProviderId(providerId)
+                .map(User::getId)
+                .map(userId -> Arrays.asList(adminUserIds).contains(userId))
+                .orElse(false);
+    }
+}
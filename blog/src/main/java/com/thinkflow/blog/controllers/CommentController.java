@@ -1,8 +1,12 @@
 package com.thinkflow.blog.controllers;
 
 import com.thinkflow.blog.models.Comment;
+import com.thinkflow.blog.models.CommentThread;
 import com.thinkflow.blog.models.Reply;
+import com.thinkflow.blog.repositories.CommentSort;
+import com.thinkflow.blog.services.AuthorLoader;
 import com.thinkflow.blog.services.CommentService;
+import com.thinkflow.blog.services.CursorPage;
 import com.thinkflow.blog.models.User;
 import com.thinkflow.blog.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,8 +16,6 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * REST Controller for handling comment-related operations
  */
@@ -52,21 +54,65 @@ public class CommentController {
     }
 
     /**
-     * Fetch all comments for a post
+     * Fetch one page of comments for a post
      * @param postId ID of the post to fetch comments for
-     * @return List of comments with HTTP status
+     * @param sort "new" (default) or "top"
+     * @param cursor Cursor from the X-Next-Cursor header of the previous page
+     * @param limit Page size
+     * @return Page of comments with HTTP status
      */
     @GetMapping("/{postId}/all")
-    public ResponseEntity<?> getCommentsForPost(@PathVariable String postId) {
+    public ResponseEntity<?> getCommentsForPost(
+            @PathVariable String postId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Comment> comments = commentService.getCommentsForPost(postId);
-            return ResponseEntity.ok(comments);
+            CursorPage<Comment> page = commentService.getCommentsForPost(postId, CommentSort.fromParam(sort), cursor, limit);
+            return page.toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while fetching comments");
         }
     }
 
+    /**
+     * Fetch one page of a post's comment thread in one response
+     * @param postId ID of the post to fetch the thread for
+     * @param sort "new" (default) or "top"
+     * @param cursor Cursor from the X-Next-Cursor header of the previous page
+     * @param limit Page size
+     * @param principal Authenticated user information
+     * @return Comments with a preview of their replies, reply counts, like counts and liked flags
+     */
+    @GetMapping("/{postId}/thread")
+    public ResponseEntity<?> getCommentThread(
+            @PathVariable String postId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal OAuth2User principal) {
+        try {
+            String viewerId = null;
+            if (principal != null) {
+                String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+                viewerId = userRepository.findByProviderId(providerId)
+                        .orElseThrow(() -> new RuntimeException("User not found"))
+                        .getId();
+            }
+            CursorPage<CommentThread> page = commentService.getCommentThread(postId, viewerId,
+                    CommentSort.fromParam(sort), cursor, limit);
+            return page.toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while fetching the comment thread");
+        }
+    }
+
     /**
      * Like or unlike a comment
      * @param commentId ID of the comment to like/unlike
@@ -89,7 +135,7 @@ public class CommentController {
     }
 
     /**
-     * Add a reply to a comment
+     * Add a reply to a comment, or to one of its replies when parentId is set
      * @param commentId ID of the comment to reply to
      * @param reply Reply data from request body
      * @param principal Authenticated user information
@@ -106,6 +152,8 @@ public class CommentController {
                     .orElseThrow(() -> new RuntimeException("User not found"));
             Reply savedReply = commentService.addReply(commentId, reply, user.getId());
             return ResponseEntity.ok(savedReply);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while adding the reply");
@@ -113,15 +161,47 @@ public class CommentController {
     }
 
     /**
-     * Get all replies for a comment
+     * Get one page of a comment's reply tree, depth-first with siblings oldest first
      * @param commentId ID of the comment to fetch replies for
-     * @return List of replies with HTTP status
+     * @param cursor Cursor from the X-Next-Cursor header of the previous page
+     * @param limit Page size
+     * @return Page of replies with HTTP status
      */
     @GetMapping("/{commentId}/replies")
-    public ResponseEntity<?> getRepliesForComment(@PathVariable String commentId) {
+    public ResponseEntity<?> getRepliesForComment(
+            @PathVariable String commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            CursorPage<Reply> page = commentService.getRepliesForComment(commentId, cursor, limit);
+            return page.toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while fetching replies");
+        }
+    }
+
+    /**
+     * Get one page of the replies under a reply, starting with the reply itself
+     * @param replyId ID of the reply at the root of the subtree
+     * @param depth Number of levels below the reply to include; the whole subtree if absent
+     * @param cursor Cursor from the X-Next-Cursor header of the previous page
+     * @param limit Page size
+     * @return Page of replies with HTTP status
+     */
+    @GetMapping("/replies/{replyId}/subtree")
+    public ResponseEntity<?> getReplySubtree(
+            @PathVariable String replyId,
+            @RequestParam(required = false) Integer depth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Reply> replies = commentService.getRepliesForComment(commentId);
-            return ResponseEntity.ok(replies);
+            CursorPage<Reply> page = commentService.getReplySubtree(replyId, depth, cursor, limit);
+            return page.toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while fetching replies");
@@ -187,12 +267,13 @@ public class CommentController {
             Comment comment = commentService.findById(commentId)
                     .orElseThrow(() -> new RuntimeException("Comment not found"));
 
-            if (!comment.getUser().getId().equals(user.getId())) {
+            if (!user.getId().equals(AuthorLoader.authorIdOf(comment.getUser()))) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
             commentService.deleteComment(commentId);
-            return ResponseEntity.ok().build();
+            // Replies and likes are cleaned up in the background
+            return ResponseEntity.accepted().build();
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -220,7 +301,7 @@ public class CommentController {
             Comment existingComment = commentService.findById(commentId)
                     .orElseThrow(() -> new RuntimeException("Comment not found"));
 
-            if (!existingComment.getUser().getId().equals(user.getId())) {
+            if (!user.getId().equals(AuthorLoader.authorIdOf(existingComment.getUser()))) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
@@ -43,7 +43,7 @@ public class LikeController {
                     oAuth2User.getAttribute("sub") : oAuth2User.getAttribute("id");
             User user = userRepository.findByProviderId(providerId)
                     .orElseThrow(() -> new RuntimeException("User not found"));
-            return ResponseEntity.ok(postService.togglePostLike(postId, user.getId()));
+            return ResponseEntity.ok(postService.togglePostLike(postId, user.getId(), user.getName()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error liking post");
         }
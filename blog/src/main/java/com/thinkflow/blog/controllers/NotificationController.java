@@ -12,6 +12,7 @@ import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -26,6 +27,8 @@ public class NotificationController {
     @GetMapping("/{userId}")
     public ResponseEntity<List<Notification>> getNotifications(
             @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication) {
         if (authentication == null || !(authentication.getPrincipal() instanceof OAuth2User)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -43,8 +46,10 @@ public class NotificationController {
                         .body(null); // Users can only access their own notifications
             }
 
-            List<Notification> notifications = notificationService.getNotifications(userId);
-            return ResponseEntity.ok(notifications);
+            // Newest first; the X-Next-Cursor header fetches older notifications
+            return notificationService.getNotifications(userId, cursor, limit).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(null);
@@ -79,6 +84,62 @@ public class NotificationController {
         }
     }
 
+    @GetMapping("/{userId}/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(
+            @PathVariable String userId,
+            Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof OAuth2User)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            OAuth2User oAuth2User = (OAuth2User) authentication.getPrincipal();
+            String providerId = oAuth2User.getAttribute("sub") != null ?
+                    oAuth2User.getAttribute("sub") : oAuth2User.getAttribute("id");
+            User currentUser = userRepository.findByProviderId(providerId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            if (!currentUser.getId().equals(userId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(null);
+            }
+
+            return ResponseEntity.ok(Map.of("unreadCount", notificationService.getUnreadCount(userId)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(null);
+        }
+    }
+
+    @PostMapping("/{userId}/read-all")
+    public ResponseEntity<Map<String, Long>> markAllAsRead(
+            @PathVariable String userId,
+            @RequestParam(required = false) String upTo,
+            Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof OAuth2User)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            OAuth2User oAuth2User = (OAuth2User) authentication.getPrincipal();
+            String providerId = oAuth2User.getAttribute("sub") != null ?
+                    oAuth2User.getAttribute("sub") : oAuth2User.getAttribute("id");
+            User currentUser = userRepository.findByProviderId(providerId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            if (!currentUser.getId().equals(userId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+
+            long marked = notificationService.markAllAsRead(userId, upTo);
+            return ResponseEntity.ok(Map.of("marked", marked));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PostMapping("/read/{notificationId}")
     public ResponseEntity<Void> markAsRead(
             @PathVariable String notificationId,
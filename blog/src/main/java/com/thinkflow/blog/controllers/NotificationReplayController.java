@@ -0,0 +1,51 @@
+package com.thinkflow.blog.controllers;
+
+import com.thinkflow.blog.services.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * STOMP controller replaying missed notifications to reconnecting clients
+ */
+@Controller
+public class NotificationReplayController {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    /**
+     * Replay the notifications the session's user received after a sequence number.
+     * Sessions are named after the user's ID, so a client can only replay its own.
+     * @param request Last sequence number the client saw
+     * @param principal User of the STOMP session
+     * @param sessionId ID of the STOMP session the replay goes to
+     */
+    @MessageMapping("/notifications/replay")
+    public void replay(ReplayRequest request, Principal principal,
+                       @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        if (principal == null || request == null) {
+            return;
+        }
+        notificationService.replay(principal.getName(), sessionId, request.getLastSeq());
+    }
+
+    /**
+     * Payload sent to /app/notifications/replay
+     */
+    public static class ReplayRequest {
+        private long lastSeq;
+
+        public long getLastSeq() {
+            return lastSeq;
+        }
+
+        public void setLastSeq(long lastSeq) {
+            this.lastSeq = lastSeq;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.thinkflow.blog.controllers;
 import com.thinkflow.blog.models.*;
 import com.thinkflow.blog.repositories.PostRepository;
 import com.thinkflow.blog.repositories.UserRepository;
+import com.thinkflow.blog.services.AuthorLoader;
+import com.thinkflow.blog.services.CursorPage;
 import com.thinkflow.blog.services.PostService;
 import com.thinkflow.blog.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -78,7 +80,7 @@ public class PostController {
             }
 
             Post post = existingPost.get();
-            if (!post.getUser().getId().equals(user.getId())) {
+            if (!user.getId().equals(AuthorLoader.authorIdOf(post.getUser()))) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
@@ -107,14 +109,20 @@ public class PostController {
     }
 
     /**
-     * Fetch all posts for the feed, sorted by creation date
-     * @return List of posts with HTTP status
+     * Fetch one page of the feed, sorted by creation date
+     * @param cursor Cursor from the X-Next-Cursor header of the previous page
+     * @param limit Requested page size
+     * @return List of posts with HTTP status and the next page cursor header
      */
     @GetMapping("/feed")
-    public ResponseEntity<?> getFeedPosts() {
+    public ResponseEntity<?> getFeedPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Post> posts = postService.getFeedPosts();
-            return ResponseEntity.ok(posts);
+            CursorPage<Post> page = postService.getFeedPage(cursor, limit);
+            return page.toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while fetching feed posts");
@@ -150,7 +158,7 @@ public class PostController {
             String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
             User user = userRepository.findByProviderId(providerId)
                     .orElseThrow(() -> new RuntimeException("User not found"));
-            return ResponseEntity.ok(postService.togglePostLike(postId, user.getId()));
+            return ResponseEntity.ok(postService.togglePostLike(postId, user.getId(), user.getName()));
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while processing the like");
@@ -173,6 +181,22 @@ public class PostController {
         }
     }
 
+    /**
+     * Fetch comment count for a post
+     * @param postId ID of the post to fetch comment count for
+     * @return Comment count with HTTP status
+     */
+    @GetMapping("/{postId}/comment-count")
+    public ResponseEntity<?> getCommentCount(@PathVariable String postId) {
+        try {
+            long commentCount = postService.getCommentCount(postId);
+            return ResponseEntity.ok(commentCount);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while fetching comment count");
+        }
+    }
+
     /**
      * Fetch users who liked a post
      * @param postId ID of the post to fetch likes for
@@ -215,20 +239,53 @@ public class PostController {
     }
 
     /**
-     * Fetch posts from users the logged-in user is following
+     * Fetch like count, comment count and the current user's like state for several posts
+     * @param postIds IDs of the posts to hydrate
      * @param principal Authenticated user information
-     * @return List of posts with HTTP status
+     * @return List of post stats with HTTP status
+     */
+    @PostMapping("/hydrate")
+    public ResponseEntity<?> hydratePosts(
+            @RequestBody List<String> postIds,
+            @AuthenticationPrincipal OAuth2User principal) {
+        try {
+            String viewerId = null;
+            if (principal != null) {
+                String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
+                viewerId = userRepository.findByProviderId(providerId)
+                        .orElseThrow(() -> new RuntimeException("User not found"))
+                        .getId();
+            }
+            List<PostService.PostStats> stats = postService.hydratePosts(postIds, viewerId);
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while hydrating posts");
+        }
+    }
+
+    /**
+     * Fetch one page of posts from users the logged-in user is following
+     * @param principal Authenticated user information
+     * @param cursor Cursor from the X-Next-Cursor header of the previous page
+     * @param limit Requested page size
+     * @return List of posts with HTTP status and the next page cursor header
      */
     @GetMapping("/following")
-    public ResponseEntity<List<Post>> getFollowingPosts(@AuthenticationPrincipal OAuth2User principal) {
+    public ResponseEntity<List<Post>> getFollowingPosts(
+            @AuthenticationPrincipal OAuth2User principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         if (principal == null) {
             throw new RuntimeException("User not authenticated");
         }
         String providerId = principal.getAttribute("sub") != null ? principal.getAttribute("sub") : principal.getAttribute("id");
         User user = userRepository.findByProviderId(providerId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        List<Post> followingPosts = postService.getFollowingPosts(user.getId());
-        return ResponseEntity.ok(followingPosts);
+        CursorPage<Post> followingPosts = postService.getFollowingPosts(user.getId(), cursor, limit);
+        return followingPosts.toResponse();
     }
 
     /**
@@ -252,12 +309,13 @@ public class PostController {
             }
 
             Post post = existingPost.get();
-            if (!post.getUser().getId().equals(user.getId())) {
+            if (!user.getId().equals(AuthorLoader.authorIdOf(post.getUser()))) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
 
             postService.deletePost(postId);
-            return ResponseEntity.ok().build();
+            // Likes, comments and timeline entries are cleaned up in the background
+            return ResponseEntity.accepted().build();
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
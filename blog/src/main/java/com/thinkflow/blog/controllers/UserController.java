@@ -102,14 +102,10 @@ public class UserController {
         User user = userRepository.findByProviderId(providerId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Update user details
-        user.setName(updatedUser.getName());
-        user.setBio(updatedUser.getBio());
-        user.setStatus(updatedUser.getStatus());
-        user.setPicture(updatedUser.getPicture());
-
-        userRepository.save(user);
-        return ResponseEntity.ok(user);
+        // Update user details without rewriting counters changed meanwhile
+        User updated = userRepository.updateProfile(user.getId(), updatedUser.getName(), updatedUser.getBio(),
+                updatedUser.getStatus(), updatedUser.getPicture());
+        return ResponseEntity.ok(updated);
     }
 
     // Fetch user by ID (alternative to getUserProfileById)
@@ -134,7 +130,8 @@ public class UserController {
 
         try {
             userService.deleteUser(userId);
-            return ResponseEntity.ok("Account deleted successfully");
+            // Posts, likes, comments and references are cleaned up in the background
+            return ResponseEntity.accepted().body("Account deleted successfully");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Failed to delete account: " + e.getMessage());
@@ -157,14 +154,10 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        // Update user details
-        user.setName(updatedUser.getName());
-        user.setBio(updatedUser.getBio());
-        user.setStatus(updatedUser.getStatus());
-        user.setPicture(updatedUser.getPicture());
-
-        userRepository.save(user);
-        return ResponseEntity.ok(user);
+        // Update user details without rewriting counters changed meanwhile
+        User updated = userRepository.updateProfile(user.getId(), updatedUser.getName(), updatedUser.getBio(),
+                updatedUser.getStatus(), updatedUser.getPicture());
+        return ResponseEntity.ok(updated);
     }
 
 
@@ -185,6 +178,57 @@ public class UserController {
         return ResponseEntity.ok("Unfollowed successfully");
     }
 
+    /**
+     * Get one page of a user's followers, most recent first
+     * @param userId The ID of the user
+     * @param cursor Cursor from the X-Next-Cursor header of the previous page, omitted for the first page
+     * @param limit Maximum number of users to return
+     * @return ResponseEntity containing the followers, with the next page's cursor in a header
+     */
+    @GetMapping("/{userId}/followers")
+    public ResponseEntity<List<User>> getFollowers(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return userService.getFollowers(userId, cursor, limit).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get one page of the users a user follows, most recent first
+     * @param userId The ID of the user
+     * @param cursor Cursor from the X-Next-Cursor header of the previous page, omitted for the first page
+     * @param limit Maximum number of users to return
+     * @return ResponseEntity containing the followed users, with the next page's cursor in a header
+     */
+    @GetMapping("/{userId}/following")
+    public ResponseEntity<List<User>> getFollowing(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return userService.getFollowing(userId, cursor, limit).toResponse();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Check whether one user follows another
+     * @param followerId The ID of the possible follower
+     * @param followeeId The ID of the possibly followed user
+     * @return ResponseEntity containing true if followerId follows followeeId
+     */
+    @GetMapping("/{followerId}/follows/{followeeId}")
+    public ResponseEntity<Boolean> isFollowing(
+            @PathVariable String followerId,
+            @PathVariable String followeeId) {
+        return ResponseEntity.ok(userService.isFollowing(followerId, followeeId));
+    }
+
     // Fetch user details by IDs
     @PostMapping("/details")
     public ResponseEntity<List<User>> getUsersByIds(@RequestBody List<String> userIds) {
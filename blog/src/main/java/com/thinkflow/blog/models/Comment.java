@@ -1,12 +1,22 @@
 package com.thinkflow.blog.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "comments")
+@CompoundIndexes({
+        // Pages a post's comments newest first
+        @CompoundIndex(name = "post_createdAt_id", def = "{'postId': 1, 'createdAt': -1, '_id': -1}"),
+        // Pages a post's comments most liked first
+        @CompoundIndex(name = "post_likeCount_id", def = "{'postId': 1, 'likeCount': -1, '_id': -1}"),
+        // Finds a user's comments when their account is deleted
+        @CompoundIndex(name = "user", def = "{'user.$id': 1}")
+})
 public class Comment {
 
     @Id
@@ -14,12 +24,13 @@ public class Comment {
 
     private String postId; // ID of the post being commented on
 
-    @DBRef
-    private User user; // Reference to the User document
+    @DBRef(lazy = true)
+    private User user; // Reference to the User document, resolved in batches by AuthorLoader
 
     private String content; // Content of the comment
     private Date createdAt; // Timestamp for when the comment was created
     private Date updatedAt; // Timestamp for when the comment was last updated
+    private long likeCount; // Denormalized number of likes, maintained by the like toggle
 
     // Constructors
     public Comment() {}
@@ -72,4 +83,12 @@ public class Comment {
     public void setUpdatedAt(Date updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+}
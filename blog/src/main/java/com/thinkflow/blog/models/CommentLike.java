@@ -1,19 +1,26 @@
 package com.thinkflow.blog.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
+// The unique (commentId, user) index is created by CommentLikeIndexInitializer once duplicates are removed
 @Document(collection = "commentLikes")
+@CompoundIndexes({
+        // Loads the comment IDs a viewer has liked and finds a user's likes when their account is deleted
+        @CompoundIndex(name = "user_comment", def = "{'user.$id': 1, 'commentId': 1}")
+})
 public class CommentLike {
     @Id
     private String id;
     private String commentId;
 
-    @DBRef
-    private User user; // Reference to the User document
+    @DBRef(lazy = true)
+    private User user; // Reference to the User document, resolved in batches by AuthorLoader
 
     private Date createdAt;
 
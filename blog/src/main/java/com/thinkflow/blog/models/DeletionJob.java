@@ -0,0 +1,128 @@
+package com.thinkflow.blog.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background job removing the documents that depend on a deleted post, comment or user.
+ * Progress is recorded after every batch, so a job interrupted by a restart resumes
+ * at the step it was on once its lease expires.
+ */
+@Document(collection = "deletionJobs")
+@CompoundIndexes({
+        // Finds the next claimable job
+        @CompoundIndex(name = "status_leaseUntil", def = "{'status': 1, 'leaseUntil': 1}"),
+        // Looks up the jobs of a deleted post, comment or user
+        @CompoundIndex(name = "target_createdAt", def = "{'targetId': 1, 'createdAt': -1}")
+})
+public class DeletionJob {
+
+    public enum Type { POST, COMMENT, USER }
+
+    public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+    @Id
+    private String id;
+
+    private Type type;
+    private String targetId;     // ID of the deleted post, comment or user
+    private Status status;
+    private int step;            // Index of the cleanup step in progress
+    private long deletedCount;   // Documents removed or updated so far
+    private int attempts;
+    private String leaseToken;   // Identifies the worker currently running the job
+    private Date leaseUntil;     // The job may be claimed by another worker after this time
+    private String lastError;
+    private CounterChange pendingChange;  // Counted batch in progress, finished first on resume
+    private Date createdAt;
+    private Date updatedAt;
+
+    @Indexed(expireAfter = "7d")
+    private Date completedAt;    // Finished jobs are removed a week after completion
+
+    public DeletionJob() {}
+
+    public DeletionJob(Type type, String targetId) {
+        this.type = type;
+        this.targetId = targetId;
+        this.status = Status.PENDING;
+        this.createdAt = new Date();
+        this.updatedAt = this.createdAt;
+        this.leaseUntil = this.createdAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    public String getTargetId() { return targetId; }
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public int getStep() { return step; }
+    public void setStep(int step) { this.step = step; }
+    public long getDeletedCount() { return deletedCount; }
+    public void setDeletedCount(long deletedCount) { this.deletedCount = deletedCount; }
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+    public String getLeaseToken() { return leaseToken; }
+    public void setLeaseToken(String leaseToken) { this.leaseToken = leaseToken; }
+    public Date getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(Date leaseUntil) { this.leaseUntil = leaseUntil; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+    public Date getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+    public Date getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Date completedAt) { this.completedAt = completedAt; }
+    public CounterChange getPendingChange() { return pendingChange; }
+    public void setPendingChange(CounterChange pendingChange) { this.pendingChange = pendingChange; }
+
+    /**
+     * A batch of documents whose removal lowers counters on other documents, e.g. likes
+     * and their posts' like counts. It is recorded before the documents are removed and
+     * again, with the IDs actually removed, in the checkpoint after the removal, so a
+     * resumed job can finish the batch and apply its counter change exactly once.
+     */
+    public static class CounterChange {
+        private String batchId;            // Marks the counters the change was applied to
+        private String collection;         // Collection the documents are removed from
+        private String counterCollection;  // Collection holding the counters
+        private String counterField;
+        private Map<String, String> targets;  // Document ID -> ID of the document whose counter it adds to
+        private List<String> removed;         // Documents this job removed; null until the removal ran
+
+        public CounterChange() {}
+
+        public CounterChange(String batchId, String collection, String counterCollection, String counterField,
+                             Map<String, String> targets) {
+            this.batchId = batchId;
+            this.collection = collection;
+            this.counterCollection = counterCollection;
+            this.counterField = counterField;
+            this.targets = targets;
+        }
+
+        public String getBatchId() { return batchId; }
+        public void setBatchId(String batchId) { this.batchId = batchId; }
+        public String getCollection() { return collection; }
+        public void setCollection(String collection) { this.collection = collection; }
+        public String getCounterCollection() { return counterCollection; }
+        public void setCounterCollection(String counterCollection) { this.counterCollection = counterCollection; }
+        public String getCounterField() { return counterField; }
+        public void setCounterField(String counterField) { this.counterField = counterField; }
+        public Map<String, String> getTargets() { return targets; }
+        public void setTargets(Map<String, String> targets) { this.targets = targets; }
+        public List<String> getRemoved() { return removed; }
+        public void setRemoved(List<String> removed) { this.removed = removed; }
+    }
+}
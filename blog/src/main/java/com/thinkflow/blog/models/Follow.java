@@ -0,0 +1,47 @@
+package com.thinkflow.blog.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * One edge of the follow graph: followerId follows followeeId.
+ */
+@Document(collection = "follows")
+@CompoundIndexes({
+        // Makes follow idempotent and answers "does A follow B"
+        @CompoundIndex(name = "follower_followee_unique", def = "{'followerId': 1, 'followeeId': 1}", unique = true),
+        // Pages who A follows, newest first
+        @CompoundIndex(name = "follower_createdAt_id", def = "{'followerId': 1, 'createdAt': -1, '_id': -1}"),
+        // Pages A's followers, newest first, and finds them for fan-out
+        @CompoundIndex(name = "followee_createdAt_id", def = "{'followeeId': 1, 'createdAt': -1, '_id': -1}")
+})
+public class Follow {
+
+    @Id
+    private String id;
+
+    private String followerId; // ID of the user who follows
+    private String followeeId; // ID of the user being followed
+    private Date createdAt;    // When the follow happened
+
+    public Follow() {}
+
+    public Follow(String followerId, String followeeId, Date createdAt) {
+        this.followerId = followerId;
+        this.followeeId = followeeId;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getFollowerId() { return followerId; }
+    public void setFollowerId(String followerId) { this.followerId = followerId; }
+    public String getFolloweeId() { return followeeId; }
+    public void setFolloweeId(String followeeId) { this.followeeId = followeeId; }
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+}
@@ -1,12 +1,19 @@
 package com.thinkflow.blog.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
+// The unique (postId, user) index is created by LikeIndexInitializer once duplicates are removed
 @Document(collection = "likes")
+@CompoundIndexes({
+        // Finds a user's likes when their account is deleted
+        @CompoundIndex(name = "user", def = "{'user.$id': 1}")
+})
 public class Like {
 
     @Id
@@ -14,8 +21,8 @@ public class Like {
 
     private String postId; // ID of the post being liked
 
-    @DBRef
-    private User user; // Reference to the User document
+    @DBRef(lazy = true)
+    private User user; // Reference to the User document, resolved in batches by AuthorLoader
 
     private Date createdAt; // Timestamp for when the like was created
 
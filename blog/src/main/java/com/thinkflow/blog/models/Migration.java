@@ -0,0 +1,32 @@
+package com.thinkflow.blog.models;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import java.util.Date;
+
+/**
+ * Marks a one-time data migration as done, so startup skips the scan that
+ * looks for documents still to migrate.
+ */
+@Document(collection = "migrations")
+public class Migration {
+
+    @MongoId(FieldType.STRING)
+    private String name;
+
+    private Date completedAt;
+
+    public Migration() {}
+
+    public Migration(String name) {
+        this.name = name;
+        this.completedAt = new Date();
+    }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public Date getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Date completedAt) { this.completedAt = completedAt; }
+}
@@ -1,11 +1,28 @@
 package com.thinkflow.blog.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
 @Document(collection = "notifications")
+@CompoundIndexes({
+        // Finds the unread aggregate that coalesced events are merged into, and keeps it
+        // unique per (user, type, target) when flushes overlap or run on several instances
+        @CompoundIndex(name = "unread_aggregate", def = "{'userId': 1, 'type': 1, 'targetId': 1}",
+                unique = true, partialFilter = "{'read': false, 'aggregate': true}"),
+        // Pages a user's notifications newest first and bounds mark-all-read
+        @CompoundIndex(name = "user_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        // Replays the notifications a reconnecting client missed
+        @CompoundIndex(name = "user_seq", def = "{'userId': 1, 'seq': 1}")
+})
 public class Notification {
     @Id
     private String id;
@@ -13,8 +30,21 @@ public class Notification {
     private String userId;
     private String message;
     private String type;
+    private String targetId;   // ID of the post the event concerns, or null when it concerns the user
+    private int actorCount = 1; // Number of distinct actors merged into this notification
+    private List<String> recentActors = new ArrayList<>(); // Names of the latest actors, newest first
+    private List<String> actorIds; // IDs of the latest distinct actors of an aggregate, newest first, bounded
     private boolean read = false;
-    private LocalDateTime createdAt = LocalDateTime.now();
+    private boolean aggregate; // True for a notification that coalesced events are merged into
+    private LocalDateTime createdAt = LocalDateTime.now(); // Time of the latest merged event
+    private long seq;          // Per-user sequence number, renewed whenever a merge updates the notification
+    private long createdSeq;   // Sequence number of the merge that created an aggregate
+
+    @Indexed(expireAfter = "30d")
+    private Date readAt;       // Read notifications are removed 30 days after being read; unread ones never expire
+
+    @Transient
+    private String actorId;    // User who triggered the event, used to coalesce repeats; not stored
 
     public Notification() {}
 
@@ -33,8 +63,26 @@ public class Notification {
     public void setMessage(String message) { this.message = message; }
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
+    public String getTargetId() { return targetId; }
+    public void setTargetId(String targetId) { this.targetId = targetId; }
+    public int getActorCount() { return actorCount; }
+    public void setActorCount(int actorCount) { this.actorCount = actorCount; }
+    public List<String> getRecentActors() { return recentActors; }
+    public void setRecentActors(List<String> recentActors) { this.recentActors = recentActors; }
+    public List<String> getActorIds() { return actorIds; }
+    public void setActorIds(List<String> actorIds) { this.actorIds = actorIds; }
     public boolean isRead() { return read; }
     public void setRead(boolean read) { this.read = read; }
+    public boolean isAggregate() { return aggregate; }
+    public void setAggregate(boolean aggregate) { this.aggregate = aggregate; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
-}
\ No newline at end of file
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+    public long getCreatedSeq() { return createdSeq; }
+    public void setCreatedSeq(long createdSeq) { this.createdSeq = createdSeq; }
+    public Date getReadAt() { return readAt; }
+    public void setReadAt(Date readAt) { this.readAt = readAt; }
+    public String getActorId() { return actorId; }
+    public void setActorId(String actorId) { this.actorId = actorId; }
+}
@@ -0,0 +1,35 @@
+package com.thinkflow.blog.models;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+/**
+ * Number of unread notifications of a user and the user's notification sequence,
+ * kept in their own collection so the atomic increments never race with
+ * whole-document saves of the user.
+ */
+@Document(collection = "notificationCounters")
+public class NotificationCounter {
+
+    @MongoId(FieldType.STRING)
+    private String userId; // Stored as a string, like the userId of notifications
+
+    private long unread;
+
+    private long seq; // Sequence number of the user's latest notification
+
+    public NotificationCounter() {}
+
+    public NotificationCounter(String userId, long unread) {
+        this.userId = userId;
+        this.unread = unread;
+    }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+    public long getUnread() { return unread; }
+    public void setUnread(long unread) { this.unread = unread; }
+    public long getSeq() { return seq; }
+    public void setSeq(long seq) { this.seq = seq; }
+}
@@ -1,6 +1,8 @@
 package com.thinkflow.blog.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -8,6 +10,12 @@ import java.util.Date;
 import java.util.List;
 
 @Document(collection = "posts")
+@CompoundIndexes({
+        // Supports keyset pagination of the global feed on (createdAt, id)
+        @CompoundIndex(name = "feed_createdAt_id", def = "{'createdAt': -1, '_id': -1}"),
+        // Supports an author's most recent posts (timeline backfill, profile pages)
+        @CompoundIndex(name = "author_createdAt", def = "{'user.$id': 1, 'createdAt': -1}")
+})
 public class Post {
 
     @Id
@@ -19,11 +27,14 @@ public class Post {
     private List<String> fileTypes; // Types of the media files (e.g., "image", "video")
     private List<String> tags; // Tags for categorization
 
-    @DBRef
-    private User user; // Reference to the User document
+    @DBRef(lazy = true)
+    private User user; // Reference to the User document, resolved in batches by AuthorLoader
 
     private Date createdAt; // Timestamp for when the post was created
 
+    private long likeCount;    // Denormalized number of likes, maintained with atomic $inc updates
+    private long commentCount; // Denormalized number of comments, maintained with atomic $inc updates
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -88,4 +99,20 @@ public class Post {
     public void setCreatedAt(Date createdAt) {
         this.createdAt = createdAt;
     }
-}
\ No newline at end of file
+
+    public long getLikeCount() {
+        return likeCount;
+    }
+
+    public void setLikeCount(long likeCount) {
+        this.likeCount = likeCount;
+    }
+
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+}
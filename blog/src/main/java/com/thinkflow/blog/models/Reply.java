@@ -1,19 +1,35 @@
 package com.thinkflow.blog.models;
 
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
 
 @Document(collection = "replies")
+@CompoundIndexes({
+        // Reads a comment's reply tree, or any subtree of it, as one range on path in
+        // depth-first order; depth is in the key so depth limits are applied on the index.
+        // Also backs the thread lookups
+        @CompoundIndex(name = "comment_path_depth", def = "{'commentId': 1, 'path': 1, 'depth': 1}"),
+        // Finds a user's replies when their account is deleted
+        @CompoundIndex(name = "user", def = "{'user.$id': 1}")
+})
 public class Reply {
 
+    /** Separates the reply IDs of a path. */
+    public static final String PATH_SEPARATOR = "/";
+
     private String id;
     private String commentId;
+    private String parentId; // ID of the reply being answered, or null for a direct reply to the comment
+    private String path;     // IDs from the top-level reply down to this one, e.g. "a/b/c"
+    private int depth;       // 0 for a direct reply to the comment
     private String content;
 
-    @DBRef
-    private User user; // Reference to the User document
+    @DBRef(lazy = true)
+    private User user; // Reference to the User document, resolved in batches by AuthorLoader
 
     private Date createdAt;
 
@@ -33,6 +49,30 @@ public class Reply {
         this.commentId = commentId;
     }
 
+    public String getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
     public String getContent() {
         return content;
     }
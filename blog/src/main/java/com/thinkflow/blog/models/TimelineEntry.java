@@ -0,0 +1,55 @@
+package com.thinkflow.blog.models;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A post materialized into a user's home timeline (fan-out on write).
+ */
+@Document(collection = "timelines")
+@CompoundIndexes({
+        // Reads one owner's timeline page newest first
+        @CompoundIndex(name = "owner_createdAt_post", def = "{'ownerId': 1, 'createdAt': -1, 'postId': -1}"),
+        // Makes fan-out and backfill idempotent
+        @CompoundIndex(name = "owner_post_unique", def = "{'ownerId': 1, 'postId': 1}", unique = true),
+        // Removes a followee's posts on unfollow
+        @CompoundIndex(name = "owner_author", def = "{'ownerId': 1, 'authorId': 1}"),
+        // Removes a deleted post from every timeline
+        @CompoundIndex(name = "post", def = "{'postId': 1}"),
+        // Removes a deleted author's posts from every timeline
+        @CompoundIndex(name = "author", def = "{'authorId': 1}")
+})
+public class TimelineEntry {
+
+    @Id
+    private String id;
+
+    private String ownerId;  // ID of the user whose timeline this entry belongs to
+    private String postId;   // ID of the post shown in the timeline
+    private String authorId; // ID of the post's author
+    private Date createdAt;  // Creation time of the post, used for ordering
+
+    public TimelineEntry() {}
+
+    public TimelineEntry(String ownerId, String postId, String authorId, Date createdAt) {
+        this.ownerId = ownerId;
+        this.postId = postId;
+        this.authorId = authorId;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getOwnerId() { return ownerId; }
+    public void setOwnerId(String ownerId) { this.ownerId = ownerId; }
+    public String getPostId() { return postId; }
+    public void setPostId(String postId) { this.postId = postId; }
+    public String getAuthorId() { return authorId; }
+    public void setAuthorId(String authorId) { this.authorId = authorId; }
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+}
@@ -1,6 +1,7 @@
 package com.thinkflow.blog.models;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.ArrayList;
@@ -21,8 +22,13 @@ public class User {
     private String picture;         // URL to user's profile picture
     private String bio;             // User's biography
     private String status;          // User's current status message
-    private List<String> followers = new ArrayList<>();  // IDs of users following this user
-    private List<String> following = new ArrayList<>();  // IDs of users this user follows
+    // Follows are edges in the follows collection; these counts are kept in step with atomic increments
+    // Indexed so timelines can find the few high-follower authors without scanning users
+    @Indexed
+    private long followerCount;     // Number of users following this user
+    private long followingCount;    // Number of users this user follows
+    // Multikey index lets post deletion $pull references from only the users holding them
+    @Indexed
     private List<String> savedPosts = new ArrayList<>(); // IDs of posts saved by this user
 
     // Constructors
@@ -85,20 +91,20 @@ public class User {
         this.status = status;
     }
 
-    public List<String> getFollowers() {
-        return followers;
+    public long getFollowerCount() {
+        return followerCount;
     }
 
-    public void setFollowers(List<String> followers) {
-        this.followers = followers;
+    public void setFollowerCount(long followerCount) {
+        this.followerCount = followerCount;
     }
 
-    public List<String> getFollowing() {
-        return following;
+    public long getFollowingCount() {
+        return followingCount;
     }
 
-    public void setFollowing(List<String> following) {
-        this.following = following;
+    public void setFollowingCount(long followingCount) {
+        this.followingCount = followingCount;
     }
 
     public List<String> getSavedPosts() {
@@ -1,13 +1,32 @@
 package com.thinkflow.blog.repositories;
 
 import com.thinkflow.blog.models.CommentLike;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
-public interface CommentLikeRepository extends MongoRepository<CommentLike, String> {
+public interface CommentLikeRepository extends MongoRepository<CommentLike, String>, CommentLikeRepositoryCustom {
     List<CommentLike> findByCommentId(String commentId);
     long countByCommentId(String commentId);
-    Optional<CommentLike> findByCommentIdAndUserId(String commentId, String userId);
+
+    /**
+     * Find the comment likes of a user with only the comment ID loaded.
+     * @param userId The MongoDB ObjectId of the user as a string.
+     * @param pageable Limit on the number of likes returned.
+     * @return Comment likes of the user with only commentId populated.
+     */
+    @Query(value = "{ 'user.$id' : { $oid: ?0 } }", fields = "{ 'commentId' : 1 }")
+    List<CommentLike> findCommentIdsByUserId(String userId, Pageable pageable);
+
+    /**
+     * Find which of the given comments a user has liked, with only the comment ID loaded.
+     * @param userId The MongoDB ObjectId of the user as a string.
+     * @param commentIds IDs of the comments to check.
+     * @return Comment likes of the user among the comments with only commentId populated.
+     */
+    @Query(value = "{ 'user.$id' : { $oid: ?0 }, 'commentId' : { $in: ?1 } }", fields = "{ 'commentId' : 1 }")
+    List<CommentLike> findCommentIdsByUserIdAndCommentIdIn(String userId, Collection<String> commentIds);
 }
\ No newline at end of file
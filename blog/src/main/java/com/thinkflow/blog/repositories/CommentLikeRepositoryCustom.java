@@ -0,0 +1,32 @@
+package com.thinkflow.blog.repositories;
+
+import java.util.Set;
+
+/**
+ * Custom comment like writes.
+ */
+public interface CommentLikeRepositoryCustom {
+
+    /**
+     * Inserts a comment like unless the user already likes the comment. Relies on the
+     * unique (commentId, user) index, so concurrent calls insert at most one like.
+     * @param commentId ID of the comment
+     * @param userId MongoDB ObjectId of the user as a string
+     * @return true if a like was inserted, false if it already existed
+     */
+    boolean insertIfAbsent(String commentId, String userId);
+
+    /**
+     * Removes a user's like of a comment.
+     * @param commentId ID of the comment
+     * @param userId MongoDB ObjectId of the user as a string
+     * @return true if a like was removed
+     */
+    boolean removeByCommentIdAndUserId(String commentId, String userId);
+
+    /**
+     * Deletes duplicate likes of the same comment by the same user, keeping one.
+     * @return IDs of the comments that had duplicates
+     */
+    Set<String> removeDuplicates();
+}
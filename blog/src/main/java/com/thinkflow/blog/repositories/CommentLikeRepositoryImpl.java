@@ -0,0 +1,66 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.CommentLike;
+import com.thinkflow.blog.models.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * MongoTemplate-backed implementation of {@link CommentLikeRepositoryCustom}.
+ */
+public class CommentLikeRepositoryImpl implements CommentLikeRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean insertIfAbsent(String commentId, String userId) {
+        User user = new User();
+        user.setId(userId);
+        CommentLike like = new CommentLike();
+        like.setCommentId(commentId);
+        like.setUser(user);
+        like.setCreatedAt(new Date());
+        try {
+            mongoTemplate.insert(like);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean removeByCommentIdAndUserId(String commentId, String userId) {
+        Query query = new Query(Criteria.where("commentId").is(commentId).and("user.$id").is(new ObjectId(userId)));
+        return mongoTemplate.remove(query, CommentLike.class).getDeletedCount() > 0;
+    }
+
+    @Override
+    public Set<String> removeDuplicates() {
+        List<Document> pipeline = List.of(
+                new Document("$group", new Document("_id",
+                        new Document("commentId", "$commentId").append("userId", "$user.$id"))
+                        .append("ids", new Document("$push", "$_id"))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$match", new Document("count", new Document("$gt", 1)))
+        );
+        Set<String> commentIds = new HashSet<>();
+        for (Document duplicate : mongoTemplate.getCollection(mongoTemplate.getCollectionName(CommentLike.class))
+                .aggregate(pipeline).allowDiskUse(true)) {
+            List<Object> ids = duplicate.getList("ids", Object.class);
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(ids.subList(1, ids.size()))), CommentLike.class);
+            commentIds.add(duplicate.get("_id", Document.class).getString("commentId"));
+        }
+        return commentIds;
+    }
+}
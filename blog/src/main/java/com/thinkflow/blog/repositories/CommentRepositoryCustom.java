@@ -0,0 +1,83 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Comment;
+import com.thinkflow.blog.models.CommentThread;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom comment queries and aggregations.
+ */
+public interface CommentRepositoryCustom {
+
+    /**
+     * Counts the comments of several posts with one aggregation.
+     * @param postIds IDs of the posts
+     * @return Comment count per post ID; posts without comments are absent
+     */
+    Map<String, Long> countByPostIds(Collection<String> postIds);
+
+    /**
+     * Reads one page of a post's comments in the given order.
+     * @param postId ID of the post
+     * @param sort Order of the comments
+     * @param beforeKey Sort key of the last comment already seen (createdAt in millis
+     *                  for NEW, likeCount for TOP), or null for the first page
+     * @param beforeId ID of the last comment already seen, or null for the first page
+     * @param limit Maximum number of comments to return
+     * @return Comments of the page
+     */
+    List<Comment> findPage(String postId, CommentSort sort, Long beforeKey, String beforeId, int limit);
+
+    /**
+     * Loads one page of a post's comments with a preview of their replies and
+     * their reply counts in one aggregation.
+     * @param postId ID of the post
+     * @param sort Order of the comments
+     * @param beforeKey Sort key of the last comment already seen, or null for the first page
+     * @param beforeId ID of the last comment already seen, or null for the first page
+     * @param limit Maximum number of comments to return
+     * @param repliesPerComment Maximum number of replies to include per comment, in reply tree order
+     * @return Comment threads of the page
+     */
+    List<CommentThread> findThread(String postId, CommentSort sort, Long beforeKey, String beforeId,
+                                   int limit, int repliesPerComment);
+
+    /**
+     * Updates the content of a comment without touching its counters.
+     * @param commentId ID of the comment
+     * @param content New content
+     * @return The updated comment, or null if it does not exist
+     */
+    Comment updateContent(String commentId, String content);
+
+    /**
+     * Atomically adds a delta to a comment's like count.
+     * @param commentId ID of the comment
+     * @param delta Amount to add, negative to subtract
+     * @return The like count after the update, or 0 if the comment does not exist
+     */
+    long incrementLikeCount(String commentId, long delta);
+
+
+    /**
+     * Reads the stored like counts of several comments with one query.
+     * @param commentIds IDs of the comments
+     * @return Like count per comment ID; comments that do not exist are absent
+     */
+    Map<String, Long> findLikeCounts(Collection<String> commentIds);
+
+    /**
+     * Recomputes the stored like counts of comments from the comment likes, server side.
+     * @param onlyMissing If true, only comments without a stored count are updated
+     */
+    void rebuildLikeCounts(boolean onlyMissing);
+
+    /**
+     * Recomputes the stored like counts of specific comments, server side.
+     * @param commentIds IDs of the comments
+     */
+    void rebuildLikeCounts(Collection<String> commentIds);
+}
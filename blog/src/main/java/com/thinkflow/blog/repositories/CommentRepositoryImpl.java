@@ -0,0 +1,165 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Comment;
+import com.thinkflow.blog.models.CommentLike;
+import com.thinkflow.blog.models.CommentThread;
+import com.thinkflow.blog.models.Reply;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MongoTemplate-backed implementation of {@link CommentRepositoryCustom}.
+ */
+public class CommentRepositoryImpl implements CommentRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<String, Long> countByPostIds(Collection<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("postId").in(postIds)),
+                Aggregation.group("postId").count().as("count")
+        );
+        Map<String, Long> counts = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, Comment.class, Document.class)) {
+            counts.put(result.getString("_id"), ((Number) result.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public List<Comment> findPage(String postId, CommentSort sort, Long beforeKey, String beforeId, int limit) {
+        Query query = new Query(pageCriteria(postId, sort, beforeKey, beforeId));
+        query.with(Sort.by(Sort.Direction.DESC, sort.getField(), "_id")).limit(limit);
+        return mongoTemplate.find(query, Comment.class);
+    }
+
+    @Override
+    public List<CommentThread> findThread(String postId, CommentSort sort, Long beforeKey, String beforeId,
+                                          int limit, int repliesPerComment) {
+        String replies = mongoTemplate.getCollectionName(Reply.class);
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(pageCriteria(postId, sort, beforeKey, beforeId)),
+                Aggregation.sort(Sort.Direction.DESC, sort.getField(), "_id"),
+                Aggregation.limit(limit),
+                lookupByCommentId(replies, "replies",
+                        new Document("$sort", new Document("path", 1)),
+                        new Document("$limit", repliesPerComment)),
+                lookupByCommentId(replies, "replyStats", new Document("$count", "count")),
+                context -> new Document("$addFields", new Document("replyCount", countOf("replyStats"))),
+                context -> new Document("$project", new Document("replyStats", 0))
+        );
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Comment.class), CommentThread.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public Comment updateContent(String commentId, String content) {
+        Update update = new Update().set("content", content).set("updatedAt", new Date());
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(commentId)), update,
+                FindAndModifyOptions.options().returnNew(true), Comment.class);
+    }
+
+    @Override
+    public long incrementLikeCount(String commentId, long delta) {
+        Query query = Query.query(Criteria.where("_id").is(commentId));
+        query.fields().include("likeCount");
+        Comment comment = mongoTemplate.findAndModify(query, new Update().inc("likeCount", delta),
+                FindAndModifyOptions.options().returnNew(true), Comment.class);
+        return comment == null ? 0 : comment.getLikeCount();
+    }
+
+    @Override
+    public Map<String, Long> findLikeCounts(Collection<String> commentIds) {
+        Query query = Query.query(Criteria.where("_id").in(commentIds));
+        query.fields().include("likeCount");
+        Map<String, Long> counts = new HashMap<>();
+        for (Comment comment : mongoTemplate.find(query, Comment.class)) {
+            counts.put(comment.getId(), comment.getLikeCount());
+        }
+        return counts;
+    }
+
+    @Override
+    public void rebuildLikeCounts(boolean onlyMissing) {
+        rebuildLikeCounts(onlyMissing ? Criteria.where("likeCount").exists(false) : new Criteria());
+    }
+
+    @Override
+    public void rebuildLikeCounts(Collection<String> commentIds) {
+        rebuildLikeCounts(Criteria.where("_id").in(commentIds.stream().map(ObjectId::new).toList()));
+    }
+
+    private void rebuildLikeCounts(Criteria criteria) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.project("_id"),
+                lookupByCommentId(mongoTemplate.getCollectionName(CommentLike.class), "likeStats",
+                        new Document("$count", "count")),
+                context -> new Document("$project", new Document("likeCount", countOf("likeStats"))),
+                Aggregation.merge()
+                        .intoCollection(mongoTemplate.getCollectionName(Comment.class))
+                        .on("_id")
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.mergeDocuments())
+                        .whenNotMatched(MergeOperation.WhenDocumentsDontMatch.discardDocument())
+                        .build()
+        );
+        mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Comment.class), Document.class);
+    }
+
+    /**
+     * Matches a post's comments strictly after the given keyset position in the sort's order.
+     */
+    private static Criteria pageCriteria(String postId, CommentSort sort, Long beforeKey, String beforeId) {
+        Criteria criteria = Criteria.where("postId").is(postId);
+        if (beforeKey == null) {
+            return criteria;
+        }
+        Object key = sort == CommentSort.NEW ? new Date(beforeKey) : beforeKey;
+        return criteria.orOperator(
+                Criteria.where(sort.getField()).lt(key),
+                Criteria.where(sort.getField()).is(key).and("_id").lt(new ObjectId(beforeId))
+        );
+    }
+
+    /**
+     * Reads the count produced by a $count lookup, defaulting to 0 when nothing matched.
+     */
+    private static Document countOf(String lookupField) {
+        return new Document("$ifNull",
+                List.of(new Document("$arrayElemAt", List.of("$" + lookupField + ".count", 0)), 0));
+    }
+    /**
+     * Builds a $lookup joining documents whose commentId matches the comment's ID.
+     * Comment IDs are stored as strings on the joined side, hence the $toString.
+     */
+    private static AggregationOperation lookupByCommentId(String from, String as, Document... stages) {
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", new Document("$expr",
+                new Document("$eq", List.of("$commentId", "$$commentId")))));
+        pipeline.addAll(List.of(stages));
+        return context -> new Document("$lookup", new Document()
+                .append("from", from)
+                .append("let", new Document("commentId", new Document("$toString", "$_id")))
+                .append("pipeline", pipeline)
+                .append("as", as));
+    }
+}
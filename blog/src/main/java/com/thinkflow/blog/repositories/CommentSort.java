@@ -0,0 +1,45 @@
+package com.thinkflow.blog.repositories;
+
+/**
+ * Orderings available for pages of comments. Each one is backed by a compound
+ * index, so pages are read in index order and never sorted in memory.
+ */
+public enum CommentSort {
+
+    /** Newest first, keyed on createdAt. */
+    NEW("createdAt"),
+
+    /** Most liked first, keyed on the stored likeCount. */
+    TOP("likeCount");
+
+    private final String field;
+
+    CommentSort(String field) {
+        this.field = field;
+    }
+
+    /**
+     * @return Name of the comment field the sort is keyed on
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Parses a sort request parameter.
+     * @param value "new", "top", or null for the default
+     * @return The matching sort
+     * @throws IllegalArgumentException if the value is not a known sort
+     */
+    public static CommentSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NEW;
+        }
+        for (CommentSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unknown comment sort: " + value);
+    }
+}
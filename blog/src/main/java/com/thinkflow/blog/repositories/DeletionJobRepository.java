@@ -0,0 +1,26 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.DeletionJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DeletionJobRepository extends MongoRepository<DeletionJob, String>, DeletionJobRepositoryCustom {
+
+    /**
+     * Find the jobs of a deleted post, comment or user, newest first.
+     * @param targetId ID of the deleted document.
+     * @return Jobs for the target.
+     */
+    List<DeletionJob> findByTargetIdOrderByCreatedAtDesc(String targetId);
+
+    /**
+     * Find jobs in the given states, oldest first.
+     * @param statuses States to match.
+     * @return Matching jobs.
+     */
+    List<DeletionJob> findByStatusInOrderByCreatedAtAsc(Collection<DeletionJob.Status> statuses);
+}
@@ -0,0 +1,107 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.DeletionJob;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lease-based claiming of deletion jobs and the batched deletes they run.
+ */
+public interface DeletionJobRepositoryCustom {
+
+    /**
+     * Atomically claims the oldest job that is pending or whose lease has expired.
+     * @param leaseToken Token identifying the claiming worker
+     * @param leaseUntil Time until which the job is reserved for the worker
+     * @return The claimed job, or null if none is available
+     */
+    DeletionJob claimNext(String leaseToken, Date leaseUntil);
+
+    /**
+     * Records the progress of a job and renews its lease, if the worker still holds it.
+     * @param jobId ID of the job
+     * @param leaseToken Token of the worker running the job
+     * @param step Index of the cleanup step in progress
+     * @param deleted Number of documents removed since the last update
+     * @param change Counter change of the batch just removed, or null if it had none
+     * @param leaseUntil New lease expiry
+     * @return false if the lease was lost to another worker
+     */
+    boolean recordProgress(String jobId, String leaseToken, int step, long deleted,
+                           DeletionJob.CounterChange change, Date leaseUntil);
+
+    /**
+     * Records a counted batch before its documents are removed, if the worker still holds the lease.
+     * @param jobId ID of the job
+     * @param leaseToken Token of the worker running the job
+     * @param change The batch, without removed IDs
+     * @return false if the lease was lost to another worker
+     */
+    boolean recordPendingChange(String jobId, String leaseToken, DeletionJob.CounterChange change);
+
+    /**
+     * Ends a job, if the worker still holds its lease.
+     * @param jobId ID of the job
+     * @param leaseToken Token of the worker running the job
+     * @param status DONE, FAILED, or PENDING to retry later
+     * @param error Error message of a failed run, or null
+     * @param retryAt Earliest time a retried job may be claimed again
+     */
+    void finish(String jobId, String leaseToken, DeletionJob.Status status, String error, Date retryAt);
+
+    /**
+     * Reads the IDs of up to limit documents matching a criteria.
+     * @param entityClass Mapped class of the collection
+     * @param criteria Filter on the collection
+     * @param limit Maximum number of IDs
+     * @return IDs of the matching documents
+     */
+    List<String> findIds(Class<?> entityClass, Criteria criteria, int limit);
+
+    /**
+     * Reads up to limit documents matching a criteria with only some fields loaded.
+     * @param entityClass Mapped class of the collection
+     * @param criteria Filter on the collection
+     * @param limit Maximum number of documents
+     * @param fields Fields to load besides the ID
+     * @return The matching documents
+     */
+    <T> List<T> findBatch(Class<T> entityClass, Criteria criteria, int limit, String... fields);
+
+    /**
+     * Deletes documents by ID with one bulk write.
+     * @param entityClass Mapped class of the collection
+     * @param ids IDs of the documents
+     * @return Number of documents deleted
+     */
+    long deleteByIds(Class<?> entityClass, Collection<String> ids);
+
+    /**
+     * @param entityClass Mapped class of a collection
+     * @return Name of the collection, as stored in a job's counter change
+     */
+    String collectionName(Class<?> entityClass);
+
+    /**
+     * Deletes documents by ID one at a time, so each delete reports whether this call
+     * removed the document or it was already gone.
+     * @param collection Name of the collection
+     * @param ids IDs of the documents
+     * @return IDs of the documents this call removed
+     */
+    List<String> removeEach(String collection, Collection<String> ids);
+
+    /**
+     * Adds deltas to a counter field with one bulk write, skipping documents the same
+     * batch was already applied to, so applying a batch again changes nothing.
+     * @param collection Name of the collection holding the counters
+     * @param field Counter field
+     * @param deltas Amount to add per document ID, negative to subtract
+     * @param batchId ID of the batch, recorded on each updated document
+     */
+    void applyCounterDeltas(String collection, String field, Map<String, Long> deltas, String batchId);
+}
@@ -0,0 +1,148 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.DeletionJob;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MongoTemplate-backed implementation of {@link DeletionJobRepositoryCustom}.
+ */
+public class DeletionJobRepositoryImpl implements DeletionJobRepositoryCustom {
+
+    /** Batches remembered per counter document, so a resumed job recognises the batch it applies again. */
+    private static final int RECENT_DELETION_BATCHES = 20;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public DeletionJob claimNext(String leaseToken, Date leaseUntil) {
+        Date now = new Date();
+        Query query = new Query(Criteria.where("status").in(DeletionJob.Status.PENDING, DeletionJob.Status.RUNNING)
+                .and("leaseUntil").lte(now))
+                .with(Sort.by(Sort.Direction.ASC, "leaseUntil"));
+        Update update = new Update()
+                .set("status", DeletionJob.Status.RUNNING)
+                .set("leaseToken", leaseToken)
+                .set("leaseUntil", leaseUntil)
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), DeletionJob.class);
+    }
+
+    @Override
+    public boolean recordProgress(String jobId, String leaseToken, int step, long deleted,
+                                  DeletionJob.CounterChange change, Date leaseUntil) {
+        Update update = new Update()
+                .set("step", step)
+                .inc("deletedCount", deleted)
+                .set("pendingChange", change)
+                .set("leaseUntil", leaseUntil)
+                .set("updatedAt", new Date());
+        return mongoTemplate.updateFirst(leased(jobId, leaseToken), update, DeletionJob.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean recordPendingChange(String jobId, String leaseToken, DeletionJob.CounterChange change) {
+        Update update = new Update()
+                .set("pendingChange", change)
+                .set("updatedAt", new Date());
+        return mongoTemplate.updateFirst(leased(jobId, leaseToken), update, DeletionJob.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void finish(String jobId, String leaseToken, DeletionJob.Status status, String error, Date retryAt) {
+        Date now = new Date();
+        Update update = new Update()
+                .set("status", status)
+                .set("lastError", error)
+                .set("leaseToken", null)
+                .set("pendingChange", null)
+                .set("leaseUntil", retryAt == null ? now : retryAt)
+                .set("updatedAt", now);
+        if (status == DeletionJob.Status.DONE || status == DeletionJob.Status.FAILED) {
+            update.set("completedAt", now);
+        }
+        mongoTemplate.updateFirst(leased(jobId, leaseToken), update, DeletionJob.class);
+    }
+
+    @Override
+    public List<String> findIds(Class<?> entityClass, Criteria criteria, int limit) {
+        Query query = new Query(criteria).limit(limit);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(entityClass)).stream()
+                .map(document -> document.get("_id").toString())
+                .toList();
+    }
+
+    @Override
+    public <T> List<T> findBatch(Class<T> entityClass, Criteria criteria, int limit, String... fields) {
+        Query query = new Query(criteria).limit(limit);
+        query.fields().include(fields);
+        return mongoTemplate.find(query, entityClass);
+    }
+
+    @Override
+    public long deleteByIds(Class<?> entityClass, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, entityClass);
+        bulk.remove(Query.query(Criteria.where("_id").in(ids)));
+        return bulk.execute().getDeletedCount();
+    }
+
+    @Override
+    public String collectionName(Class<?> entityClass) {
+        return mongoTemplate.getCollectionName(entityClass);
+    }
+
+    @Override
+    public List<String> removeEach(String collection, Collection<String> ids) {
+        List<String> removed = new ArrayList<>();
+        for (String id : ids) {
+            if (mongoTemplate.remove(Query.query(Criteria.where("_id").is(toId(id))), collection).getDeletedCount() > 0) {
+                removed.add(id);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void applyCounterDeltas(String collection, String field, Map<String, Long> deltas, String batchId) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        deltas.forEach((id, delta) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(toId(id)).and("deletionBatchIds").ne(batchId)),
+                new Update().inc(field, delta)
+                        .push("deletionBatchIds").slice(-RECENT_DELETION_BATCHES).each(batchId)));
+        bulk.execute();
+    }
+
+    /**
+     * Queries by collection name skip the mapping layer, so hex IDs are converted here.
+     */
+    private static Object toId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static Query leased(String jobId, String leaseToken) {
+        return Query.query(Criteria.where("_id").is(jobId).and("leaseToken").is(leaseToken));
+    }
+}
@@ -0,0 +1,17 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Follow;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FollowRepository extends MongoRepository<Follow, String>, FollowRepositoryCustom {
+
+    /**
+     * Checks whether one user follows another.
+     * @param followerId ID of the possible follower
+     * @param followeeId ID of the possibly followed user
+     * @return True if the follow edge exists
+     */
+    boolean existsByFollowerIdAndFolloweeId(String followerId, String followeeId);
+}
@@ -0,0 +1,78 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Follow;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Custom follow graph reads and writes.
+ */
+public interface FollowRepositoryCustom {
+
+    /**
+     * Creates a follow edge unless it already exists. The unique (followerId, followeeId)
+     * index decides, so concurrent follows never create duplicates.
+     * @param followerId ID of the user who follows
+     * @param followeeId ID of the user being followed
+     * @return True if the edge was created, false if it already existed
+     */
+    boolean insertIfAbsent(String followerId, String followeeId);
+
+    /**
+     * Removes a follow edge.
+     * @param followerId ID of the user who follows
+     * @param followeeId ID of the user being followed
+     * @return True if an edge was removed
+     */
+    boolean remove(String followerId, String followeeId);
+
+    /**
+     * Reads one page of a user's followers, most recent first.
+     * @param followeeId ID of the followed user
+     * @param beforeKey Creation time in millis of the last edge already seen, or null for the first page
+     * @param beforeId ID of the last edge already seen, or null for the first page
+     * @param limit Maximum number of edges to return
+     * @return Follow edges of the page
+     */
+    List<Follow> findFollowersPage(String followeeId, Long beforeKey, String beforeId, int limit);
+
+    /**
+     * Reads one page of the users someone follows, most recent first.
+     * @param followerId ID of the following user
+     * @param beforeKey Creation time in millis of the last edge already seen, or null for the first page
+     * @param beforeId ID of the last edge already seen, or null for the first page
+     * @param limit Maximum number of edges to return
+     * @return Follow edges of the page
+     */
+    List<Follow> findFollowingPage(String followerId, Long beforeKey, String beforeId, int limit);
+
+    /**
+     * Reads the IDs of all users following a user.
+     * @param followeeId ID of the followed user
+     * @return IDs of the followers
+     */
+    List<String> findFollowerIds(String followeeId);
+
+    /**
+     * Reads the IDs of all users someone follows.
+     * @param followerId ID of the following user
+     * @return IDs of the followed users
+     */
+    List<String> findFolloweeIds(String followerId);
+
+    /**
+     * Finds which of the given users someone follows.
+     * @param followerId ID of the following user
+     * @param followeeIds IDs of the users to check
+     * @return The subset of followeeIds that followerId follows
+     */
+    Set<String> findFollowedAmong(String followerId, Collection<String> followeeIds);
+
+    /**
+     * Copies the embedded follower and following lists of every user into follow edges,
+     * keeping edges that already exist. Runs server side.
+     */
+    void copyFromUserLists();
+}
@@ -0,0 +1,125 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Follow;
+import com.thinkflow.blog.models.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * MongoTemplate-backed implementation of {@link FollowRepositoryCustom}.
+ */
+public class FollowRepositoryImpl implements FollowRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean insertIfAbsent(String followerId, String followeeId) {
+        try {
+            mongoTemplate.insert(new Follow(followerId, followeeId, new Date()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean remove(String followerId, String followeeId) {
+        Query query = Query.query(Criteria.where("followerId").is(followerId).and("followeeId").is(followeeId));
+        return mongoTemplate.remove(query, Follow.class).getDeletedCount() > 0;
+    }
+
+    @Override
+    public List<Follow> findFollowersPage(String followeeId, Long beforeKey, String beforeId, int limit) {
+        return findPage("followeeId", followeeId, beforeKey, beforeId, limit);
+    }
+
+    @Override
+    public List<Follow> findFollowingPage(String followerId, Long beforeKey, String beforeId, int limit) {
+        return findPage("followerId", followerId, beforeKey, beforeId, limit);
+    }
+
+    @Override
+    public List<String> findFollowerIds(String followeeId) {
+        Query query = Query.query(Criteria.where("followeeId").is(followeeId));
+        query.fields().include("followerId");
+        return mongoTemplate.find(query, Follow.class).stream().map(Follow::getFollowerId).toList();
+    }
+
+    @Override
+    public List<String> findFolloweeIds(String followerId) {
+        Query query = Query.query(Criteria.where("followerId").is(followerId));
+        query.fields().include("followeeId");
+        return mongoTemplate.find(query, Follow.class).stream().map(Follow::getFolloweeId).toList();
+    }
+
+    @Override
+    public Set<String> findFollowedAmong(String followerId, Collection<String> followeeIds) {
+        if (followeeIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        Query query = Query.query(Criteria.where("followerId").is(followerId).and("followeeId").in(followeeIds));
+        query.fields().include("followeeId");
+        return mongoTemplate.find(query, Follow.class).stream().map(Follow::getFolloweeId).collect(Collectors.toSet());
+    }
+
+    @Override
+    public void copyFromUserLists() {
+        copyEdges("following", "$_idString", "$following");
+        copyEdges("followers", "$followers", "$_idString");
+    }
+
+    /**
+     * Reads one page of edges of one user, newest first, strictly after the keyset position.
+     */
+    private List<Follow> findPage(String field, String userId, Long beforeKey, String beforeId, int limit) {
+        Criteria criteria = Criteria.where(field).is(userId);
+        if (beforeKey != null) {
+            Date before = new Date(beforeKey);
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(before),
+                    Criteria.where("createdAt").is(before).and("_id").lt(new ObjectId(beforeId)));
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.DESC, "createdAt", "_id")).limit(limit);
+        return mongoTemplate.find(query, Follow.class);
+    }
+
+    /**
+     * Unwinds one embedded list of the users into edges and merges them into the follows
+     * collection on its unique (followerId, followeeId) index.
+     */
+    private void copyEdges(String listField, String followerExpression, String followeeExpression) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(listField + ".0").exists(true)),
+                context -> new Document("$project", new Document(listField, 1)
+                        .append("_idString", new Document("$toString", "$_id"))),
+                Aggregation.unwind(listField),
+                context -> new Document("$project", new Document("_id", 0)
+                        .append("followerId", followerExpression)
+                        .append("followeeId", followeeExpression)
+                        .append("createdAt", "$$NOW")),
+                Aggregation.merge()
+                        .intoCollection(mongoTemplate.getCollectionName(Follow.class))
+                        .on("followerId", "followeeId")
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.keepExistingDocument())
+                        .whenNotMatched(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                        .build()
+        );
+        mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(User.class), Document.class);
+    }
+}
@@ -1,15 +1,17 @@
 package com.thinkflow.blog.repositories;
 
 import com.thinkflow.blog.models.Like;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface LikeRepository extends MongoRepository<Like, String> {
+public interface LikeRepository extends MongoRepository<Like, String>, LikeRepositoryCustom {
 
     /**
      * Find a like by postId and user ID.
@@ -38,6 +40,24 @@ public interface LikeRepository extends MongoRepository<Like, String> {
     @Query("{ 'user.$id' : { $oid: ?0 } }")
     List<Like> findByUserId(String userId);
 
+    /**
+     * Find the likes of a user with only the post ID loaded.
+     * @param userId The MongoDB ObjectId of the user as a string.
+     * @param pageable Limit on the number of likes returned.
+     * @return Likes of the user with only postId populated.
+     */
+    @Query(value = "{ 'user.$id' : { $oid: ?0 } }", fields = "{ 'postId' : 1 }")
+    List<Like> findPostIdsByUserId(String userId, Pageable pageable);
+
+    /**
+     * Find which of the given posts a user has liked, with only the post ID loaded.
+     * @param userId The MongoDB ObjectId of the user as a string.
+     * @param postIds IDs of the posts to check.
+     * @return Likes of the user among the posts with only postId populated.
+     */
+    @Query(value = "{ 'user.$id' : { $oid: ?0 }, 'postId' : { $in: ?1 } }", fields = "{ 'postId' : 1 }")
+    List<Like> findPostIdsByUserIdAndPostIdIn(String userId, Collection<String> postIds);
+
     /**
      * Delete all likes by a user's MongoDB ObjectId.
      * @param userId The MongoDB ObjectId of the user.
@@ -0,0 +1,41 @@
+package com.thinkflow.blog.repositories;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Custom like queries and aggregations.
+ */
+public interface LikeRepositoryCustom {
+
+    /**
+     * Counts the likes of several posts with one aggregation.
+     * @param postIds IDs of the posts
+     * @return Like count per post ID; posts without likes are absent
+     */
+    Map<String, Long> countByPostIds(Collection<String> postIds);
+
+    /**
+     * Inserts a like unless the user already likes the post. Relies on the
+     * unique (postId, user) index, so concurrent calls insert at most one like.
+     * @param postId ID of the post
+     * @param userId MongoDB ObjectId of the user as a string
+     * @return true if a like was inserted, false if it already existed
+     */
+    boolean insertIfAbsent(String postId, String userId);
+
+    /**
+     * Removes a user's like of a post.
+     * @param postId ID of the post
+     * @param userId MongoDB ObjectId of the user as a string
+     * @return true if a like was removed
+     */
+    boolean removeByPostIdAndUserId(String postId, String userId);
+
+    /**
+     * Deletes duplicate likes of the same post by the same user, keeping one.
+     * @return IDs of the posts that had duplicates
+     */
+    Set<String> removeDuplicates();
+}
@@ -0,0 +1,83 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Like;
+import com.thinkflow.blog.models.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MongoTemplate-backed implementation of {@link LikeRepositoryCustom}.
+ */
+public class LikeRepositoryImpl implements LikeRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<String, Long> countByPostIds(Collection<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("postId").in(postIds)),
+                Aggregation.group("postId").count().as("count")
+        );
+        Map<String, Long> counts = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, Like.class, Document.class)) {
+            counts.put(result.getString("_id"), ((Number) result.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    @Override
+    public boolean insertIfAbsent(String postId, String userId) {
+        User user = new User();
+        user.setId(userId);
+        Like like = new Like();
+        like.setPostId(postId);
+        like.setUser(user);
+        like.setCreatedAt(new Date());
+        try {
+            mongoTemplate.insert(like);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean removeByPostIdAndUserId(String postId, String userId) {
+        Query query = new Query(Criteria.where("postId").is(postId).and("user.$id").is(new ObjectId(userId)));
+        return mongoTemplate.remove(query, Like.class).getDeletedCount() > 0;
+    }
+
+    @Override
+    public Set<String> removeDuplicates() {
+        List<Document> pipeline = List.of(
+                new Document("$group", new Document("_id",
+                        new Document("postId", "$postId").append("userId", "$user.$id"))
+                        .append("ids", new Document("$push", "$_id"))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$match", new Document("count", new Document("$gt", 1)))
+        );
+        Set<String> postIds = new HashSet<>();
+        for (Document duplicate : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Like.class))
+                .aggregate(pipeline).allowDiskUse(true)) {
+            List<Object> ids = duplicate.getList("ids", Object.class);
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(ids.subList(1, ids.size()))), Like.class);
+            postIds.add(duplicate.get("_id", Document.class).getString("postId"));
+        }
+        return postIds;
+    }
+}
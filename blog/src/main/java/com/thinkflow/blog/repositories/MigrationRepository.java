@@ -0,0 +1,9 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Migration;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MigrationRepository extends MongoRepository<Migration, String> {
+}
@@ -0,0 +1,10 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.NotificationCounter;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationCounterRepository extends MongoRepository<NotificationCounter, String>,
+        NotificationCounterRepositoryCustom {
+}
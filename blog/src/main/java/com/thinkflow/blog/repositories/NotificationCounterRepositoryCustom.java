@@ -0,0 +1,41 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.NotificationCounter;
+
+/**
+ * Custom unread counter and sequence writes.
+ */
+public interface NotificationCounterRepositoryCustom {
+
+    /**
+     * Atomically adds to a user's unread count, creating the counter if needed.
+     * @param userId ID of the user
+     * @param delta Amount to add, negative when notifications are read
+     * @return The unread count after the change
+     */
+    long increment(String userId, long delta);
+
+    /**
+     * Atomically reserves a block of consecutive sequence numbers for a user's new
+     * notifications, creating the counter if needed.
+     * @param userId ID of the user
+     * @param count Number of sequence numbers to reserve
+     * @return The last reserved sequence number; the block ends with it
+     */
+    long allocateSequence(String userId, int count);
+
+    /**
+     * Atomically reserves a block of sequence numbers for a user's new notifications and
+     * adds them to the unread count, in one write, creating the counter if needed.
+     * @param userId ID of the user
+     * @param count Number of new notifications
+     * @return The counter after the change: seq is the last reserved number, unread the new count
+     */
+    NotificationCounter addNotifications(String userId, int count);
+
+    /**
+     * Creates the counters from the unread notifications if the counters collection
+     * does not exist yet. Does nothing once it does.
+     */
+    void seedFromNotifications();
+}
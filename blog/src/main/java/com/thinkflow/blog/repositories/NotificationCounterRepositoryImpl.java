@@ -0,0 +1,72 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Notification;
+import com.thinkflow.blog.models.NotificationCounter;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * MongoTemplate-backed implementation of {@link NotificationCounterRepositoryCustom}.
+ */
+public class NotificationCounterRepositoryImpl implements NotificationCounterRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public long increment(String userId, long delta) {
+        NotificationCounter counter = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().inc("unread", delta),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                NotificationCounter.class);
+        return counter == null ? 0 : counter.getUnread();
+    }
+
+    @Override
+    public long allocateSequence(String userId, int count) {
+        NotificationCounter counter = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().inc("seq", count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                NotificationCounter.class);
+        return counter == null ? 0 : counter.getSeq();
+    }
+
+    @Override
+    public NotificationCounter addNotifications(String userId, int count) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().inc("seq", count).inc("unread", count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                NotificationCounter.class);
+    }
+
+    @Override
+    public void seedFromNotifications() {
+        if (mongoTemplate.collectionExists(NotificationCounter.class)) {
+            return;
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("read").is(false)),
+                Aggregation.group("userId").count().as("unread"),
+                Aggregation.merge()
+                        .intoCollection(mongoTemplate.getCollectionName(NotificationCounter.class))
+                        .on("_id")
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                        .whenNotMatched(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                        .build()
+        );
+        mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Notification.class), Document.class);
+        if (!mongoTemplate.collectionExists(NotificationCounter.class)) {
+            mongoTemplate.createCollection(NotificationCounter.class);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Notification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Custom notification writes.
+ */
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Merges coalesced events into the user's unread notification of the same type and
+     * target, creating it if there is none. The actor count grows by the number of actors
+     * not already among the aggregate's tracked actor IDs, so an actor who acts again in a
+     * later window is not counted twice. The newest actors go to the front of recentActors
+     * and actorIds, and createdAt moves to now and the notification takes the given
+     * sequence number so it surfaces again. The message ("Alice and 41 others liked your
+     * post.") is rebuilt from the merged actors and count in the same write.
+     * @param userId ID of the notified user
+     * @param type Notification type
+     * @param targetId ID of the post the events concern, or null when they concern the user
+     * @param actorIds IDs of the distinct actors of the merged events, newest first
+     * @param newestActors Names of the newest of those actors, newest first
+     * @param keepActors Maximum number of names kept in recentActors
+     * @param trackedActors Maximum number of IDs kept in actorIds; an actor who dropped out
+     *                      of them is counted again
+     * @param seq Sequence number reserved for the merge
+     * @param action Text of the message after the actor names, e.g. "liked your post."
+     * @return The notification after the merge; its createdSeq equals seq if the merge created it
+     */
+    Notification mergeEvents(String userId, String type, String targetId, List<String> actorIds,
+                             List<String> newestActors, int keepActors, int trackedActors, long seq, String action);
+
+    /**
+     * Reads the notifications of a user with a sequence number above the given one,
+     * newest first.
+     * @param userId ID of the user
+     * @param afterSeq Last sequence number the client has seen
+     * @param limit Maximum number of notifications to return
+     * @return The newest notifications after afterSeq
+     */
+    List<Notification> findAfterSeq(String userId, long afterSeq, int limit);
+
+    /**
+     * Reads one page of a user's notifications, newest first.
+     * @param userId ID of the user
+     * @param before Creation time of the last notification already seen, or null for the first page
+     * @param beforeId ID of the last notification already seen, or null for the first page
+     * @param limit Maximum number of notifications to return
+     * @return Notifications of the page
+     */
+    List<Notification> findPage(String userId, LocalDateTime before, String beforeId, int limit);
+
+    /**
+     * Marks every unread notification of a user at or before a keyset position as read,
+     * with a single updateMany.
+     * @param userId ID of the user
+     * @param upTo Creation time of the newest notification to mark
+     * @param upToId ID of the newest notification to mark, or null to include every notification created at upTo
+     * @return Number of notifications marked
+     */
+    long markAllRead(String userId, LocalDateTime upTo, String upToId);
+
+    /**
+     * Marks a notification as read if it is not already.
+     * @param notificationId ID of the notification
+     * @return The notification as it was before, or null if it was already read or does not exist
+     */
+    Notification markRead(String notificationId);
+}
@@ -0,0 +1,144 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Notification;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of {@link NotificationRepositoryCustom}.
+ */
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Notification mergeEvents(String userId, String type, String targetId, List<String> actorIds,
+                                    List<String> newestActors, int keepActors, int trackedActors, long seq, String action) {
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                .and("type").is(type)
+                .and("targetId").is(targetId)
+                .and("read").is(false)
+                .and("aggregate").is(true));
+        Document knownIds = new Document("$ifNull", List.of("$actorIds", List.of()));
+        // Pipeline update, so counts, actors and message are built from the stored aggregate in
+        // the same write; each set is its own stage and sees the fields set before it
+        AggregationUpdate update = AggregationUpdate.update()
+                // Aggregates stored before actor IDs were tracked already have a count, and were not created now
+                .set("createdSeq").toValue(expression(new Document("$ifNull", List.of("$createdSeq",
+                        new Document("$cond", List.of(
+                                new Document("$gt", List.of(new Document("$ifNull", List.of("$actorCount", 0)), 0)),
+                                0, seq))))))
+                .set("actorCount").toValue(expression(new Document("$add", List.of(
+                        new Document("$ifNull", List.of("$actorCount", 0)),
+                        new Document("$size", new Document("$setDifference", List.of(actorIds, knownIds)))))))
+                .set("actorIds").toValue(expression(new Document("$slice", List.of(
+                        new Document("$concatArrays", List.of(actorIds, notIn(knownIds, actorIds))),
+                        trackedActors))))
+                .set("recentActors").toValue(expression(new Document("$slice", List.of(
+                        new Document("$concatArrays", List.of(newestActors,
+                                notIn(new Document("$ifNull", List.of("$recentActors", List.of())), newestActors))),
+                        keepActors))))
+                .set("createdAt").toValue(new Date())
+                .set("seq").toValue(seq)
+                .set("message").toValue(expression(message(action)));
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        try {
+            return mongoTemplate.findAndModify(query, update, options, Notification.class);
+        } catch (DuplicateKeyException e) {
+            // A concurrent merge created the aggregate first; merge into it
+            return mongoTemplate.findAndModify(query, update, options, Notification.class);
+        }
+    }
+
+    @Override
+    public List<Notification> findPage(String userId, LocalDateTime before, String beforeId, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (before != null) {
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(before),
+                    Criteria.where("createdAt").is(before).and("_id").lt(new ObjectId(beforeId)));
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.DESC, "createdAt", "_id")).limit(limit);
+        return mongoTemplate.find(query, Notification.class);
+    }
+
+    @Override
+    public List<Notification> findAfterSeq(String userId, long afterSeq, int limit) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("seq").gt(afterSeq))
+                .with(Sort.by(Sort.Direction.DESC, "seq"))
+                .limit(limit);
+        return mongoTemplate.find(query, Notification.class);
+    }
+
+    @Override
+    public long markAllRead(String userId, LocalDateTime upTo, String upToId) {
+        Criteria criteria = Criteria.where("userId").is(userId).and("read").is(false);
+        if (upToId == null) {
+            criteria.and("createdAt").lte(upTo);
+        } else {
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(upTo),
+                    Criteria.where("createdAt").is(upTo).and("_id").lte(new ObjectId(upToId)));
+        }
+        return mongoTemplate.updateMulti(new Query(criteria), markedRead(), Notification.class).getModifiedCount();
+    }
+
+    @Override
+    public Notification markRead(String notificationId) {
+        Query query = Query.query(Criteria.where("_id").is(notificationId).and("read").is(false));
+        query.fields().include("userId");
+        return mongoTemplate.findAndModify(query, markedRead(), Notification.class);
+    }
+
+    private static Update markedRead() {
+        return new Update().set("read", true).set("readAt", new Date());
+    }
+
+    /**
+     * "Alice liked your post.", "Alice and Bob liked your post." or "Alice and 41 others
+     * liked your post.", from the actorCount and recentActors set earlier in the update.
+     */
+    private static Document message(String action) {
+        Document first = new Document("$arrayElemAt", List.of("$recentActors", 0));
+        Document second = new Document("$arrayElemAt", List.of("$recentActors", 1));
+        Document others = new Document("$subtract", List.of("$actorCount", 1));
+        return new Document("$switch", new Document("branches", List.of(
+                new Document("case", new Document("$lte", List.of("$actorCount", 1)))
+                        .append("then", new Document("$concat", List.of(first, " " + action))),
+                new Document("case", new Document("$and", List.of(
+                        new Document("$eq", List.of("$actorCount", 2)),
+                        new Document("$gte", List.of(new Document("$size", "$recentActors"), 2)))))
+                        .append("then", new Document("$concat", List.of(first, " and ", second, " " + action)))))
+                .append("default", new Document("$concat", List.of(first, " and ",
+                        new Document("$toString", others),
+                        new Document("$cond", List.of(new Document("$eq", List.of(others, 1)), " other ", " others ")),
+                        action))));
+    }
+
+    /**
+     * The elements of an array expression that are not in the given values, in order.
+     */
+    private static Document notIn(Object array, List<String> values) {
+        return new Document("$filter", new Document("input", array)
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$this", values))))));
+    }
+
+    private static AggregationExpression expression(Document document) {
+        return context -> document;
+    }
+}
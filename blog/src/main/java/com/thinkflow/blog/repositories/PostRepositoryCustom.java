@@ -0,0 +1,103 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Post;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom post queries that cannot be expressed as derived repository methods.
+ */
+public interface PostRepositoryCustom {
+
+    /**
+     * Finds a page of the global feed ordered by (createdAt, id) descending, starting
+     * strictly after the given keyset position.
+     * @param beforeCreatedAt createdAt of the last post on the previous page, or null for the first page
+     * @param beforeId ID of the last post on the previous page, or null for the first page
+     * @param limit Maximum number of posts to return
+     * @return Posts older than the given position, newest first
+     */
+    List<Post> findFeedPage(Date beforeCreatedAt, String beforeId, int limit);
+
+    /**
+     * Finds the most recent posts of a set of authors, newest first.
+     * @param authorIds MongoDB ObjectIds of the authors as strings
+     * @param limit Maximum number of posts to return
+     * @return Most recent posts across all given authors
+     */
+    List<Post> findRecentByAuthors(List<String> authorIds, int limit);
+
+    /**
+     * Finds a page of one author's posts ordered by (createdAt, id) descending, starting
+     * strictly after the given keyset position.
+     * @param authorId MongoDB ObjectId of the author as a string
+     * @param beforeCreatedAt createdAt of the last post already seen, or null to start from the newest
+     * @param beforeId ID of the last post already seen, or null to start from the newest
+     * @param limit Maximum number of posts to return
+     * @return The author's posts older than the given position, newest first
+     */
+    List<Post> findAuthorPage(String authorId, Date beforeCreatedAt, String beforeId, int limit);
+
+    /**
+     * Applies the editable fields of a post with a targeted $set, leaving the
+     * denormalized counters untouched.
+     * @param postId ID of the post to update
+     * @param updates Post holding the new title, content, media and tags
+     * @return The updated post, or null if it does not exist
+     */
+    Post updateContent(String postId, Post updates);
+
+    /**
+     * Atomically adds a delta to a post's like count.
+     * @param postId ID of the post
+     * @param delta Amount to add, negative to subtract
+     * @return The post with only likeCount and user populated after the update,
+     *         or null if the post does not exist
+     */
+    Post incrementLikeCount(String postId, long delta);
+
+
+    /**
+     * Adds accumulated like deltas to several posts with one unordered bulk write.
+     * Each updated post remembers the flush ID, and posts that already carry it are
+     * skipped, so retrying a batch whose outcome is unknown never applies it twice.
+     * @param deltas Amount to add per post ID
+     * @param flushId Unique ID of the batch, reused when the batch is retried
+     */
+    void incrementLikeCounts(Map<String, Long> deltas, String flushId);
+
+    /**
+     * Atomically adds a delta to a post's comment count.
+     * @param postId ID of the post
+     * @param delta Amount to add, negative to subtract
+     */
+    void incrementCommentCount(String postId, long delta);
+
+
+    /**
+     * Reads only the denormalized counters of several posts.
+     * @param postIds IDs of the posts
+     * @return Posts with only id, user, likeCount and commentCount populated
+     */
+    List<Post> findCounters(Collection<String> postIds);
+
+    /**
+     * Finds the IDs of a batch of posts in ID order, for jobs that walk the whole collection.
+     * @param afterId ID of the last post of the previous batch, or null to start at the beginning
+     * @param onlyMissingCounters True to return only posts whose counters were never initialized
+     * @param limit Maximum number of IDs to return
+     * @return Post IDs in ascending order
+     */
+    List<String> findIdBatch(String afterId, boolean onlyMissingCounters, int limit);
+
+    /**
+     * Overwrites the counters of a batch of posts with one bulk write.
+     * @param likeCounts Like count per post ID
+     * @param commentCounts Comment count per post ID
+     * @param postIds IDs of the posts to update; missing counts are written as 0
+     */
+    void setCounters(Collection<String> postIds, Map<String, Long> likeCounts, Map<String, Long> commentCounts);
+}
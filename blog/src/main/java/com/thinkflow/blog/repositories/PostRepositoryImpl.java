@@ -0,0 +1,140 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Post;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MongoTemplate-backed implementation of {@link PostRepositoryCustom}.
+ */
+public class PostRepositoryImpl implements PostRepositoryCustom {
+
+    /** Number of recent write-behind flush IDs kept on a post to make retried flushes idempotent. */
+    private static final int RECENT_LIKE_FLUSHES = 16;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Post> findFeedPage(Date beforeCreatedAt, String beforeId, int limit) {
+        Query query = new Query();
+        addKeysetCriteria(query, beforeCreatedAt, beforeId);
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt", "_id")).limit(limit);
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    @Override
+    public List<Post> findRecentByAuthors(List<String> authorIds, int limit) {
+        List<ObjectId> authorObjectIds = authorIds.stream().map(ObjectId::new).toList();
+        Query query = new Query(Criteria.where("user.$id").in(authorObjectIds))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    @Override
+    public List<Post> findAuthorPage(String authorId, Date beforeCreatedAt, String beforeId, int limit) {
+        Query query = new Query(Criteria.where("user.$id").is(new ObjectId(authorId)));
+        addKeysetCriteria(query, beforeCreatedAt, beforeId);
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt", "_id")).limit(limit);
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    @Override
+    public Post updateContent(String postId, Post updates) {
+        Update update = new Update()
+                .set("title", updates.getTitle())
+                .set("content", updates.getContent())
+                .set("mediaUrls", updates.getMediaUrls())
+                .set("fileTypes", updates.getFileTypes())
+                .set("tags", updates.getTags());
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(postId)), update,
+                FindAndModifyOptions.options().returnNew(true), Post.class);
+    }
+
+    @Override
+    public Post incrementLikeCount(String postId, long delta) {
+        Query query = Query.query(Criteria.where("_id").is(postId));
+        query.fields().include("likeCount").include("user");
+        return mongoTemplate.findAndModify(query, new Update().inc("likeCount", delta),
+                FindAndModifyOptions.options().returnNew(true), Post.class);
+    }
+
+    @Override
+    public void incrementLikeCounts(Map<String, Long> deltas, String flushId) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        deltas.forEach((postId, delta) -> bulk.updateOne(
+                Query.query(Criteria.where("_id").is(postId).and("likeFlushIds").ne(flushId)),
+                new Update().inc("likeCount", delta)
+                        .push("likeFlushIds").slice(-RECENT_LIKE_FLUSHES).each(flushId)));
+        bulk.execute();
+    }
+
+    @Override
+    public void incrementCommentCount(String postId, long delta) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(postId)),
+                new Update().inc("commentCount", delta), Post.class);
+    }
+
+    @Override
+    public List<Post> findCounters(Collection<String> postIds) {
+        Query query = Query.query(Criteria.where("_id").in(postIds));
+        query.fields().include("user").include("likeCount").include("commentCount");
+        return mongoTemplate.find(query, Post.class);
+    }
+
+    @Override
+    public List<String> findIdBatch(String afterId, boolean onlyMissingCounters, int limit) {
+        Query query = new Query();
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(new ObjectId(afterId)));
+        }
+        if (onlyMissingCounters) {
+            query.addCriteria(Criteria.where("likeCount").exists(false));
+        }
+        query.fields().include("_id");
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        return mongoTemplate.find(query, Post.class).stream().map(Post::getId).toList();
+    }
+
+    @Override
+    public void setCounters(Collection<String> postIds, Map<String, Long> likeCounts, Map<String, Long> commentCounts) {
+        if (postIds.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        for (String postId : postIds) {
+            bulk.updateOne(Query.query(Criteria.where("_id").is(postId)), new Update()
+                    .set("likeCount", likeCounts.getOrDefault(postId, 0L))
+                    .set("commentCount", commentCounts.getOrDefault(postId, 0L)));
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Restricts a query to posts strictly older than the (createdAt, id) position.
+     */
+    private void addKeysetCriteria(Query query, Date beforeCreatedAt, String beforeId) {
+        if (beforeCreatedAt != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(beforeCreatedAt),
+                    Criteria.where("createdAt").is(beforeCreatedAt).and("_id").lt(new ObjectId(beforeId))
+            ));
+        }
+    }
+}
@@ -5,6 +5,6 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
-public interface ReplyRepository extends MongoRepository<Reply, String> {
+public interface ReplyRepository extends MongoRepository<Reply, String>, ReplyRepositoryCustom {
     List<Reply> findByCommentId(String commentId);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Reply;
+
+import java.util.List;
+
+/**
+ * Custom reply queries.
+ */
+public interface ReplyRepositoryCustom {
+
+    /**
+     * Reads one page of a comment's reply tree, or of a subtree of it, in depth-first
+     * order with siblings oldest first. The page is a single range scan over the
+     * (commentId, path, depth) index.
+     * @param commentId ID of the comment
+     * @param rootPath Path of the reply whose subtree to read, including that reply, or null for the whole tree
+     * @param maxDepth Deepest reply depth to include, or null for no limit
+     * @param afterPath Path of the last reply already seen, or null for the first page
+     * @param limit Maximum number of replies to return
+     * @return Replies of the page
+     */
+    List<Reply> findTreePage(String commentId, String rootPath, Integer maxDepth, String afterPath, int limit);
+
+    /**
+     * Gives replies stored before threading was introduced a top-level path and depth.
+     * @return Number of replies updated
+     */
+    long backfillPaths();
+}
@@ -0,0 +1,54 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Reply;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of {@link ReplyRepositoryCustom}.
+ */
+public class ReplyRepositoryImpl implements ReplyRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Reply> findTreePage(String commentId, String rootPath, Integer maxDepth, String afterPath, int limit) {
+        Criteria criteria = Criteria.where("commentId").is(commentId);
+        if (rootPath != null || afterPath != null) {
+            Criteria path = Criteria.where("path");
+            if (afterPath != null && (rootPath == null || afterPath.compareTo(rootPath) >= 0)) {
+                path.gt(afterPath);
+            } else {
+                path.gte(rootPath);
+            }
+            if (rootPath != null) {
+                // Reply IDs are hex, so every descendant path sorts below the root path
+                // followed by '0', the character after the separator
+                path.lt(rootPath + (char) (Reply.PATH_SEPARATOR.charAt(0) + 1));
+            }
+            criteria.andOperator(path);
+        }
+        if (maxDepth != null) {
+            criteria.and("depth").lte(maxDepth);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "path")).limit(limit);
+        return mongoTemplate.find(query, Reply.class);
+    }
+
+    @Override
+    public long backfillPaths() {
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("path").toValue(ConvertOperators.valueOf("_id").convertToString())
+                .set("depth").toValue(0);
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("path").exists(false)), update, Reply.class)
+                .getModifiedCount();
+    }
+}
@@ -0,0 +1,23 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.TimelineEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TimelineRepository extends MongoRepository<TimelineEntry, String>, TimelineRepositoryCustom {
+
+    /**
+     * Check whether a user's timeline has been materialized.
+     * @param ownerId ID of the timeline owner.
+     * @return True if the timeline has at least one entry.
+     */
+    boolean existsByOwnerId(String ownerId);
+
+    /**
+     * Remove all posts of an author from one user's timeline.
+     * @param ownerId ID of the timeline owner.
+     * @param authorId ID of the author.
+     */
+    void deleteByOwnerIdAndAuthorId(String ownerId, String authorId);
+}
@@ -0,0 +1,29 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.TimelineEntry;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Custom timeline queries and bulk writes.
+ */
+public interface TimelineRepositoryCustom {
+
+    /**
+     * Finds a page of one user's timeline ordered by (createdAt, postId) descending.
+     * @param ownerId ID of the timeline owner
+     * @param beforeCreatedAt createdAt of the last entry on the previous page, or null for the first page
+     * @param beforePostId Post ID of the last entry on the previous page, or null for the first page
+     * @param limit Maximum number of entries to return
+     * @return Timeline entries, newest first
+     */
+    List<TimelineEntry> findPage(String ownerId, Date beforeCreatedAt, String beforePostId, int limit);
+
+    /**
+     * Inserts entries with a single unordered bulk write. Entries already present
+     * for the same owner and post are left untouched.
+     * @param entries Entries to insert
+     */
+    void upsertAll(List<TimelineEntry> entries);
+}
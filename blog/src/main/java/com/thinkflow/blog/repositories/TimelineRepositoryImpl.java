@@ -0,0 +1,51 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.TimelineEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of {@link TimelineRepositoryCustom}.
+ */
+public class TimelineRepositoryImpl implements TimelineRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<TimelineEntry> findPage(String ownerId, Date beforeCreatedAt, String beforePostId, int limit) {
+        Query query = new Query(Criteria.where("ownerId").is(ownerId));
+        if (beforeCreatedAt != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(beforeCreatedAt),
+                    Criteria.where("createdAt").is(beforeCreatedAt).and("postId").lt(beforePostId)
+            ));
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "createdAt", "postId")).limit(limit);
+        return mongoTemplate.find(query, TimelineEntry.class);
+    }
+
+    @Override
+    public void upsertAll(List<TimelineEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TimelineEntry.class);
+        for (TimelineEntry entry : entries) {
+            Query query = new Query(Criteria.where("ownerId").is(entry.getOwnerId()).and("postId").is(entry.getPostId()));
+            Update update = new Update()
+                    .setOnInsert("authorId", entry.getAuthorId())
+                    .setOnInsert("createdAt", entry.getCreatedAt());
+            bulk.upsert(query, update);
+        }
+        bulk.execute();
+    }
+}
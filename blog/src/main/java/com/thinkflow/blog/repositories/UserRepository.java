@@ -14,7 +14,7 @@ import java.util.Optional;
  * Repository interface for User entity CRUD operations and custom queries.
  */
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
 
     /**
      * Finds a user by their OAuth provider ID.
@@ -0,0 +1,105 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.User;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom user queries that cannot be expressed as derived repository methods.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Finds every user with at least the given number of followers, using their stored
+     * follower counts and the followerCount index. Only the IDs are read.
+     * @param minFollowers Minimum number of followers
+     * @return IDs of the users with at least minFollowers followers
+     */
+    List<String> findIdsWithMinFollowers(int minFollowers);
+
+    /**
+     * Finds lightweight author summaries for a set of users in one query.
+     * Only the ID, name and picture are read; the saved post list is not.
+     * @param ids IDs of the users
+     * @return Users with only id, name and picture populated
+     */
+    List<User> findSummariesByIds(Collection<String> ids);
+
+    /**
+     * Adds a post to a user's saved posts with $addToSet, touching no other field.
+     * @param userId ID of the user
+     * @param postId ID of the post
+     * @return False if the user does not exist
+     */
+    boolean addSavedPost(String userId, String postId);
+
+    /**
+     * Removes a post from a user's saved posts with $pull, touching no other field.
+     * @param userId ID of the user
+     * @param postId ID of the post
+     * @return False if the user does not exist
+     */
+    boolean removeSavedPost(String userId, String postId);
+
+    /**
+     * Removes posts from the saved posts of every user who saved one of them.
+     * @param postIds IDs of the posts
+     * @return Number of users updated
+     */
+    long pullSavedPosts(Collection<String> postIds);
+
+    /**
+     * Finds the public profiles of a set of users in one query, in no particular order.
+     * Everything except the saved post list is read.
+     * @param ids IDs of the users
+     * @return Users without their saved posts
+     */
+    List<User> findProfilesByIds(Collection<String> ids);
+
+    /**
+     * Replaces the editable profile fields of a user with a single targeted update,
+     * leaving counters and lists untouched.
+     * @param userId ID of the user
+     * @param name New name
+     * @param bio New biography
+     * @param status New status message
+     * @param picture New picture URL
+     * @return The updated user, or null if it does not exist
+     */
+    User updateProfile(String userId, String name, String bio, String status, String picture);
+
+    /**
+     * Stores the identities, email and picture of a user after a login, leaving
+     * counters and lists untouched.
+     * @param user User with the values to store
+     */
+    void updateLoginDetails(User user);
+
+    /**
+     * Atomically applies a follow or unfollow to the counts of both users.
+     * @param followerId ID of the user who follows
+     * @param followeeId ID of the user being followed
+     * @param delta 1 for a follow, -1 for an unfollow
+     */
+    void incrementFollowCounts(String followerId, String followeeId, long delta);
+
+
+
+    /**
+     * Recomputes the follower and following counts of every user with follow edges,
+     * server side.
+     */
+    void rebuildFollowCounts();
+
+    /**
+     * @return True if any user still has the embedded follower or following list
+     */
+    boolean hasFollowLists();
+
+    /**
+     * Removes the embedded follower and following lists from every user.
+     * @return Number of users updated
+     */
+    long unsetFollowLists();
+}
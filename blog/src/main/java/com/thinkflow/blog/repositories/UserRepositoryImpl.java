@@ -0,0 +1,151 @@
+package com.thinkflow.blog.repositories;
+
+import com.thinkflow.blog.models.Follow;
+import com.thinkflow.blog.models.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of {@link UserRepositoryCustom}.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<String> findIdsWithMinFollowers(int minFollowers) {
+        Query query = new Query(Criteria.where("followerCount").gte(minFollowers));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, User.class).stream().map(User::getId).toList();
+    }
+
+    @Override
+    public List<User> findSummariesByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<ObjectId> objectIds = ids.stream().map(ObjectId::new).toList();
+        Query query = new Query(Criteria.where("_id").in(objectIds));
+        query.fields().include("name").include("picture");
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public boolean addSavedPost(String userId, String postId) {
+        return mongoTemplate.updateFirst(byId(userId), new Update().addToSet("savedPosts", postId), User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean removeSavedPost(String userId, String postId) {
+        return mongoTemplate.updateFirst(byId(userId), new Update().pull("savedPosts", postId), User.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public long pullSavedPosts(Collection<String> postIds) {
+        if (postIds.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("savedPosts").in(postIds)),
+                new Update().pullAll("savedPosts", postIds.toArray()), User.class).getModifiedCount();
+    }
+
+    @Override
+    public List<User> findProfilesByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<ObjectId> objectIds = ids.stream().map(ObjectId::new).toList();
+        Query query = new Query(Criteria.where("_id").in(objectIds));
+        query.fields().exclude("savedPosts");
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public User updateProfile(String userId, String name, String bio, String status, String picture) {
+        Update update = new Update()
+                .set("name", name)
+                .set("bio", bio)
+                .set("status", status)
+                .set("picture", picture);
+        return mongoTemplate.findAndModify(byId(userId), update,
+                FindAndModifyOptions.options().returnNew(true), User.class);
+    }
+
+    @Override
+    public void updateLoginDetails(User user) {
+        Update update = new Update()
+                .set("identities", user.getIdentities())
+                .set("email", user.getEmail())
+                .set("picture", user.getPicture());
+        mongoTemplate.updateFirst(byId(user.getId()), update, User.class);
+    }
+
+    @Override
+    public void incrementFollowCounts(String followerId, String followeeId, long delta) {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)
+                .updateOne(byId(followerId), new Update().inc("followingCount", delta))
+                .updateOne(byId(followeeId), new Update().inc("followerCount", delta))
+                .execute();
+    }
+
+    @Override
+    public void rebuildFollowCounts() {
+        mergeEdgeCounts("followeeId", "followerCount");
+        mergeEdgeCounts("followerId", "followingCount");
+    }
+
+    @Override
+    public boolean hasFollowLists() {
+        return mongoTemplate.exists(new Query(new Criteria().orOperator(
+                Criteria.where("followers").exists(true),
+                Criteria.where("following").exists(true))), User.class);
+    }
+
+    @Override
+    public long unsetFollowLists() {
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("followers").exists(true),
+                Criteria.where("following").exists(true)));
+        return mongoTemplate.updateMulti(query, new Update().unset("followers").unset("following"), User.class)
+                .getModifiedCount();
+    }
+
+    /**
+     * Counts the follow edges per user on one side and merges the counts into the users.
+     * Edges hold user IDs as strings, hence the $toObjectId.
+     */
+    private void mergeEdgeCounts(String edgeField, String countField) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group(edgeField).count().as(countField),
+                context -> new Document("$project", new Document("_id", new Document("$toObjectId", "$_id"))
+                        .append(countField, 1)),
+                Aggregation.merge()
+                        .intoCollection(mongoTemplate.getCollectionName(User.class))
+                        .on("_id")
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.mergeDocuments())
+                        .whenNotMatched(MergeOperation.WhenDocumentsDontMatch.discardDocument())
+                        .build()
+        );
+        mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Follow.class), Document.class);
+    }
+
+    private static Query byId(String userId) {
+        return Query.query(Criteria.where("_id").is(userId));
+    }
+}
@@ -49,9 +49,9 @@ public class AuthService extends DefaultOAuth2UserService {
                 user.setEmail(email);
                 user.setPicture(picture);
                 user.setStatus("Prefer Not to Say");
-                user.setFollowers(new ArrayList<>());
-                user.setFollowing(new ArrayList<>());
                 user.setSavedPosts(new ArrayList<>());
+                userRepository.insert(user);
+                return oAuth2User;
             }
         } else {
             // Update syncable fields
@@ -61,7 +61,8 @@ public class AuthService extends DefaultOAuth2UserService {
             }
         }
 
-        userRepository.save(user);
+        // A targeted update, so a login never overwrites follow counts changed meanwhile
+        userRepository.updateLoginDetails(user);
         return oAuth2User;
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.thinkflow.blog.services;
+
+import com.mongodb.DBRef;
+import com.thinkflow.blog.models.Comment;
+import com.thinkflow.blog.models.CommentThread;
+import com.thinkflow.blog.models.Like;
+import com.thinkflow.blog.models.Post;
+import com.thinkflow.blog.models.Reply;
+import com.thinkflow.blog.models.User;
+import com.thinkflow.blog.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch loader for the authors of posts, comments, replies and likes.
+ * The user references on those documents are lazy, so reading a list does not run one
+ * users lookup per row. This loader collects the distinct author IDs of a whole list,
+ * fetches name and picture for all of them with a single $in query, and attaches the
+ * lightweight summaries in place of the unresolved references.
+ */
+@Service
+public class AuthorLoader {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Attaches author summaries to a list of posts.
+     * @param posts Posts to hydrate
+     * @return The same list, with authors attached
+     */
+    public List<Post> attachToPosts(List<Post> posts) {
+        return attachAuthors(posts, Post::getUser, Post::setUser);
+    }
+
+    /**
+     * Attaches the author summary to a single post.
+     * @param post Post to hydrate
+     * @return The same post, with its author attached
+     */
+    public Post attachToPost(Post post) {
+        attachToPosts(List.of(post));
+        return post;
+    }
+
+    /**
+     * Attaches author summaries to a list of comments.
+     * @param comments Comments to hydrate
+     * @return The same list, with authors attached
+     */
+    public List<Comment> attachToComments(List<Comment> comments) {
+        return attachAuthors(comments, Comment::getUser, Comment::setUser);
+    }
+
+    /**
+     * Attaches the author summary to a single comment.
+     * @param comment Comment to hydrate
+     * @return The same comment, with its author attached
+     */
+    public Comment attachToComment(Comment comment) {
+        attachToComments(List.of(comment));
+        return comment;
+    }
+
+    /**
+     * Attaches author summaries to a list of replies.
+     * @param replies Replies to hydrate
+     * @return The same list, with authors attached
+     */
+    public List<Reply> attachToReplies(List<Reply> replies) {
+        return attachAuthors(replies, Reply::getUser, Reply::setUser);
+    }
+
+    /**
+     * Attaches author summaries to comment threads and all their replies with one query.
+     * @param threads Comment threads to hydrate
+     * @return The same list, with authors attached
+     */
+    public List<CommentThread> attachToThreads(List<CommentThread> threads) {
+        List<Object> items = new ArrayList<>();
+        for (CommentThread thread : threads) {
+            items.add(thread);
+            items.addAll(thread.getReplies());
+        }
+        attachAuthors(items,
+                item -> item instanceof Reply reply ? reply.getUser() : ((CommentThread) item).getUser(),
+                (item, user) -> {
+                    if (item instanceof Reply reply) {
+                        reply.setUser(user);
+                    } else {
+                        ((CommentThread) item).setUser(user);
+                    }
+                });
+        return threads;
+    }
+
+    /**
+     * Attaches user summaries to a list of likes.
+     * @param likes Likes to hydrate
+     * @return The same list, with users attached
+     */
+    public List<Like> attachToLikes(List<Like> likes) {
+        return attachAuthors(likes, Like::getUser, Like::setUser);
+    }
+
+    /**
+     * Resolves the referenced users of a list with one query and attaches their summaries.
+     * References to users that no longer exist are cleared.
+     * @param items Items holding a user reference
+     * @param getter Reads the user reference of an item
+     * @param setter Replaces the user reference of an item
+     * @return The same list, with user summaries attached
+     */
+    public <T> List<T> attachAuthors(List<T> items, Function<T, User> getter, BiConsumer<T, User> setter) {
+        Set<String> authorIds = new LinkedHashSet<>();
+        for (T item : items) {
+            String authorId = authorIdOf(getter.apply(item));
+            if (authorId != null) {
+                authorIds.add(authorId);
+            }
+        }
+        if (authorIds.isEmpty()) {
+            return items;
+        }
+
+        Map<String, User> summaries = userRepository.findSummariesByIds(authorIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (T item : items) {
+            String authorId = authorIdOf(getter.apply(item));
+            setter.accept(item, authorId == null ? null : summaries.get(authorId));
+        }
+        return items;
+    }
+
+    /**
+     * Reads the ID of a referenced user without resolving a lazy reference.
+     * @param user User reference, possibly an unresolved lazy proxy
+     * @return ID of the referenced user, or null if there is no reference
+     */
+    public static String authorIdOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        if (user instanceof LazyLoadingProxy proxy) {
+            DBRef ref = proxy.toDBRef();
+            return ref == null ? null : ref.getId().toString();
+        }
+        return user.getId();
+    }
+}
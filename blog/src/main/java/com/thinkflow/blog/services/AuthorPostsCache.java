@@ -0,0 +1,152 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Post;
+import com.thinkflow.blog.models.TimelineEntry;
+import com.thinkflow.blog.repositories.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory cache of the most recent posts of high-follower authors.
+ * Posts of these authors are not fanned out on write; they are merged into
+ * readers' timelines from this cache instead.
+ */
+@Component
+public class AuthorPostsCache {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${timeline.author-cache.posts-per-author:200}")
+    private int postsPerAuthor;
+
+    @Value("${timeline.author-cache.max-authors:10000}")
+    private int maxAuthors;
+
+    @Value("${timeline.author-cache.ttl-ms:30000}")
+    private long ttlMillis;
+
+    private final Map<String, CachedPosts> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedPosts> eldest) {
+                    return size() > maxAuthors;
+                }
+            });
+
+    /**
+     * Returns up to limit posts of an author that are strictly older than the given position,
+     * newest first. Served from the cache when the cached window covers the request,
+     * otherwise read from the repository.
+     * @param authorId ID of the author
+     * @param after Keyset position of the last item already seen, or null for the newest posts
+     * @param limit Maximum number of entries to return
+     * @return Timeline entries of the author's posts
+     */
+    public List<TimelineEntry> getPostsBefore(String authorId, Cursor after, int limit) {
+        CachedPosts cached = cache.get(authorId);
+        if (cached == null || cached.isExpired(ttlMillis)) {
+            cached = load(authorId);
+        }
+
+        List<TimelineEntry> result = new ArrayList<>(limit);
+        for (TimelineEntry entry : cached.entries) {
+            if (after == null || isBefore(entry, after)) {
+                result.add(entry);
+                if (result.size() == limit) {
+                    return result;
+                }
+            }
+        }
+        if (!cached.complete) {
+            // The request reaches past the cached window; page through the author's posts directly
+            return postRepository.findAuthorPage(authorId,
+                    after == null ? null : new Date(after.getSortKey()), after == null ? null : after.getId(), limit)
+                    .stream().map(post -> toEntry(authorId, post)).toList();
+        }
+        return result;
+    }
+
+    /**
+     * Adds a newly created post to its author's cached window, if the author is cached.
+     * @param post Newly created post
+     */
+    public void addPost(Post post) {
+        String authorId = AuthorLoader.authorIdOf(post.getUser());
+        cache.computeIfPresent(authorId, (id, cached) -> {
+            List<TimelineEntry> entries = new ArrayList<>(cached.entries.size() + 1);
+            entries.add(toEntry(authorId, post));
+            entries.addAll(cached.entries);
+            boolean complete = cached.complete;
+            if (entries.size() > postsPerAuthor) {
+                entries = entries.subList(0, postsPerAuthor);
+                complete = false;
+            }
+            return new CachedPosts(List.copyOf(entries), complete, cached.loadedAt);
+        });
+    }
+
+    /**
+     * Removes a deleted post from its author's cached window.
+     * @param authorId ID of the post's author
+     * @param postId ID of the deleted post
+     */
+    public void removePost(String authorId, String postId) {
+        cache.computeIfPresent(authorId, (id, cached) -> new CachedPosts(
+                cached.entries.stream().filter(entry -> !entry.getPostId().equals(postId)).toList(),
+                cached.complete, cached.loadedAt));
+    }
+
+    /**
+     * Drops an author from the cache.
+     * @param authorId ID of the author
+     */
+    public void evict(String authorId) {
+        cache.remove(authorId);
+    }
+
+    private CachedPosts load(String authorId) {
+        List<Post> posts = postRepository.findAuthorPage(authorId, null, null, postsPerAuthor);
+        List<TimelineEntry> entries = posts.stream().map(post -> toEntry(authorId, post)).toList();
+        CachedPosts cached = new CachedPosts(entries, posts.size() < postsPerAuthor, System.currentTimeMillis());
+        cache.put(authorId, cached);
+        return cached;
+    }
+
+    private static TimelineEntry toEntry(String authorId, Post post) {
+        return new TimelineEntry(null, post.getId(), authorId, post.getCreatedAt());
+    }
+
+    private static boolean isBefore(TimelineEntry entry, Cursor after) {
+        long createdAt = entry.getCreatedAt().getTime();
+        return createdAt < after.getSortKey()
+                || (createdAt == after.getSortKey() && entry.getPostId().compareTo(after.getId()) < 0);
+    }
+
+    /**
+     * Immutable snapshot of an author's newest posts.
+     */
+    private static class CachedPosts {
+        private final List<TimelineEntry> entries; // Newest first
+        private final boolean complete;            // True if the author has no posts beyond these
+        private final long loadedAt;
+
+        CachedPosts(List<TimelineEntry> entries, boolean complete, long loadedAt) {
+            this.entries = entries;
+            this.complete = complete;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
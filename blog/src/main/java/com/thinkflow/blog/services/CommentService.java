@@ -1,23 +1,27 @@
 package com.thinkflow.blog.services;
 
 import com.thinkflow.blog.models.Comment;
-import com.thinkflow.blog.models.CommentLike;
+import com.thinkflow.blog.models.CommentThread;
 import com.thinkflow.blog.models.Post;
 import com.thinkflow.blog.models.Reply;
 import com.thinkflow.blog.models.User;
 import com.thinkflow.blog.repositories.CommentLikeRepository;
 import com.thinkflow.blog.repositories.CommentRepository;
+import com.thinkflow.blog.repositories.CommentSort;
 import com.thinkflow.blog.repositories.PostRepository;
 import com.thinkflow.blog.repositories.ReplyRepository;
 import com.thinkflow.blog.repositories.UserRepository;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class for handling comment-related business logic
@@ -45,6 +49,27 @@ public class CommentService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private AuthorLoader authorLoader;
+
+    @Autowired
+    private ViewerLikeCache viewerLikeCache;
+
+    @Autowired
+    private DeletionJobService deletionJobService;
+
+    @Autowired
+    private EngagementStatsPublisher engagementStatsPublisher;
+
+    @Value("${comments.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${comments.page-size.max:100}")
+    private int maxPageSize;
+
+    @Value("${comments.thread.replies-preview:3}")
+    private int repliesPreview;
+
     public Optional<Comment> findById(String commentId) {
         return commentRepository.findById(commentId);
     }
@@ -69,35 +94,53 @@ public class CommentService {
         comment.setPostId(postId);
         comment.setUser(user);
         comment.setCreatedAt(new Date());
+        comment.setLikeCount(0);
 
         // Notify the post's author
-        String authorId = post.getUser().getId();
+        String authorId = AuthorLoader.authorIdOf(post.getUser());
         logger.info("Notifying post author {} about comment by {}", authorId, user.getName());
         notificationService.notifyComment(user.getName(), authorId, comment.getContent());
 
         // Save and return the comment
         Comment savedComment = commentRepository.save(comment);
+        postRepository.incrementCommentCount(postId, 1);
+        engagementStatsPublisher.postChanged(postId);
         logger.info("Comment saved with ID: {}", savedComment.getId());
         return savedComment;
     }
 
     /**
-     * Get all comments for a post
+     * Get one page of comments for a post
      * @param postId ID of the post to get comments for
-     * @return List of comments
+     * @param sort Order of the comments
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, clamped to the configured maximum
+     * @return Page of comments with the cursor of the next page
      */
-    public List<Comment> getCommentsForPost(String postId) {
-        return commentRepository.findByPostId(postId);
+    public CursorPage<Comment> getCommentsForPost(String postId, CommentSort sort, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampPageSize(limit, defaultPageSize, maxPageSize);
+        Cursor after = Cursor.decode(cursor);
+        List<Comment> comments = commentRepository.findPage(postId, sort,
+                after == null ? null : after.getSortKey(), after == null ? null : after.getId(), pageSize + 1);
+        CursorPage<Comment> page = CursorPage.of(comments, pageSize,
+                comment -> new Cursor(sortKeyOf(sort, comment.getCreatedAt(), comment.getLikeCount()), comment.getId()));
+        authorLoader.attachToComments(page.getItems());
+        return page;
     }
 
     /**
-     * Delete a comment
+     * Delete a comment. Its replies and likes are removed by a background deletion job.
      * @param commentId ID of the comment to delete
      */
     public void deleteComment(String commentId) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
-        commentRepository.delete(comment);
+        // The job is saved first and deletes the comment itself too, so a crash cannot orphan
+        // the replies and likes it removes in the background
+        deletionJobService.enqueueCommentDeletion(commentId);
+        if (deletionJobService.deleteComment(comment)) {
+            engagementStatsPublisher.postChanged(comment.getPostId());
+        }
     }
 
     /**
@@ -107,11 +150,11 @@ public class CommentService {
      * @return Updated comment
      */
     public Comment updateComment(String commentId, String newContent) {
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new RuntimeException("Comment not found"));
-        comment.setContent(newContent);
-        comment.setUpdatedAt(new Date());
-        return commentRepository.save(comment);
+        Comment comment = commentRepository.updateContent(commentId, newContent);
+        if (comment == null) {
+            throw new RuntimeException("Comment not found");
+        }
+        return authorLoader.attachToComment(comment);
     }
 
     /**
@@ -121,48 +164,133 @@ public class CommentService {
      * @return CommentLikeResponse with updated like count and status
      */
     public CommentLikeResponse toggleCommentLike(String commentId, String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
-        Optional<CommentLike> existingLike = commentLikeRepository.findByCommentIdAndUserId(commentId, user.getId());
-        boolean isLiked;
-        if (existingLike.isPresent()) {
-            commentLikeRepository.delete(existingLike.get());
-            isLiked = false;
-        } else {
-            CommentLike like = new CommentLike();
-            like.setCommentId(commentId);
-            like.setUser(user);
-            like.setCreatedAt(new Date());
-            commentLikeRepository.save(like);
-            isLiked = true;
+        // Same as the post toggle: one conditional write picks the outcome, guessed from
+        // the viewer cache, and the counter moves only when that write changed something
+        boolean unlike = viewerLikeCache.isKnownToLikeComment(userId, commentId);
+        if (!unlike && commentLikeRepository.insertIfAbsent(commentId, userId)) {
+            return applyCommentLikeChange(commentId, userId, true);
+        }
+        if (commentLikeRepository.removeByCommentIdAndUserId(commentId, userId)) {
+            return applyCommentLikeChange(commentId, userId, false);
+        }
+        if (unlike && commentLikeRepository.insertIfAbsent(commentId, userId)) {
+            return applyCommentLikeChange(commentId, userId, true);
         }
-        long likeCount = commentLikeRepository.countByCommentId(commentId);
-        return new CommentLikeResponse(likeCount, isLiked);
+
+        // A concurrent toggle reversed the like between our two writes
+        viewerLikeCache.onCommentLikeChanged(userId, commentId, unlike);
+        return new CommentLikeResponse(getCommentLikeCount(commentId), unlike);
+    }
+
+    private CommentLikeResponse applyCommentLikeChange(String commentId, String userId, boolean liked) {
+        viewerLikeCache.onCommentLikeChanged(userId, commentId, liked);
+        long likeCount = commentRepository.incrementLikeCount(commentId, liked ? 1 : -1);
+        engagementStatsPublisher.commentChanged(commentId);
+        return new CommentLikeResponse(likeCount, liked);
     }
 
     /**
-     * Add a reply to a comment
+     * Add a reply to a comment, or to another reply of the same comment when the reply
+     * names a parentId. The reply's materialized path and depth are derived from its parent.
      * @param commentId ID of the comment to reply to
      * @param reply Reply data
      * @param userId MongoDB ObjectId of the authenticated user
      * @return Created reply
+     * @throws IllegalArgumentException if the parent reply does not belong to the comment
      */
     public Reply addReply(String commentId, Reply reply, String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        // The ID is assigned up front because it is the last segment of the reply's own path
+        String replyId = new ObjectId().toHexString();
+        reply.setId(replyId);
+        if (reply.getParentId() == null) {
+            reply.setPath(replyId);
+            reply.setDepth(0);
+        } else {
+            Reply parent = replyRepository.findById(reply.getParentId())
+                    .filter(candidate -> commentId.equals(candidate.getCommentId()))
+                    .orElseThrow(() -> new IllegalArgumentException("Parent reply not found: " + reply.getParentId()));
+            reply.setPath(parent.getPath() + Reply.PATH_SEPARATOR + replyId);
+            reply.setDepth(parent.getDepth() + 1);
+        }
         reply.setCommentId(commentId);
         reply.setUser(user);
         reply.setCreatedAt(new Date());
-        return replyRepository.save(reply);
+        return replyRepository.insert(reply);
     }
 
     /**
-     * Get all replies for a comment
+     * Get one page of a comment's reply tree in depth-first order, siblings oldest first
      * @param commentId ID of the comment to get replies for
-     * @return List of replies
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, clamped to the configured maximum
+     * @return Page of replies with the cursor of the next page
      */
-    public List<Reply> getRepliesForComment(String commentId) {
-        return replyRepository.findByCommentId(commentId);
+    public CursorPage<Reply> getRepliesForComment(String commentId, String cursor, Integer limit) {
+        return getReplyTreePage(commentId, null, null, cursor, limit);
+    }
+
+    /**
+     * Get one page of the subtree under a reply in depth-first order, starting with the reply itself
+     * @param replyId ID of the reply at the root of the subtree
+     * @param depth Number of levels below the reply to include, or null for the whole subtree
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, clamped to the configured maximum
+     * @return Page of replies with the cursor of the next page
+     */
+    public CursorPage<Reply> getReplySubtree(String replyId, Integer depth, String cursor, Integer limit) {
+        if (depth != null && depth < 0) {
+            throw new IllegalArgumentException("depth must not be negative");
+        }
+        Reply root = replyRepository.findById(replyId)
+                .orElseThrow(() -> new RuntimeException("Reply not found with ID: " + replyId));
+        return getReplyTreePage(root.getCommentId(), root.getPath(),
+                depth == null ? null : root.getDepth() + depth, cursor, limit);
+    }
+
+    private CursorPage<Reply> getReplyTreePage(String commentId, String rootPath, Integer maxDepth,
+                                               String cursor, Integer limit) {
+        int pageSize = CursorPage.clampPageSize(limit, defaultPageSize, maxPageSize);
+        Cursor after = Cursor.decode(cursor);
+        List<Reply> replies = replyRepository.findTreePage(commentId, rootPath, maxDepth,
+                after == null ? null : after.getId(), pageSize + 1);
+        // Paths are unique, so the last path alone positions the next page
+        CursorPage<Reply> page = CursorPage.of(replies, pageSize, reply -> new Cursor(0, reply.getPath()));
+        authorLoader.attachToReplies(page.getItems());
+        return page;
+    }
+
+    /**
+     * Fetch one page of a post's comment thread, with a preview of the replies, counts
+     * and the viewer's liked flags, using one aggregation plus one batched author lookup.
+     * @param postId ID of the post
+     * @param viewerId MongoDB ObjectId of the viewing user, or null for anonymous viewers
+     * @param sort Order of the comments
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, clamped to the configured maximum
+     * @return Page of comment threads with the cursor of the next page
+     */
+    public CursorPage<CommentThread> getCommentThread(String postId, String viewerId, CommentSort sort,
+                                                      String cursor, Integer limit) {
+        int pageSize = CursorPage.clampPageSize(limit, defaultPageSize, maxPageSize);
+        Cursor after = Cursor.decode(cursor);
+        CursorPage<CommentThread> page = CursorPage.of(commentRepository.findThread(postId, sort,
+                        after == null ? null : after.getSortKey(), after == null ? null : after.getId(),
+                        pageSize + 1, repliesPreview), pageSize,
+                thread -> new Cursor(sortKeyOf(sort, thread.getCreatedAt(), thread.getLikeCount()), thread.getId()));
+        List<CommentThread> threads = page.getItems();
+        if (viewerId != null && !threads.isEmpty()) {
+            Set<String> liked = viewerLikeCache.likedCommentsAmong(viewerId,
+                    threads.stream().map(CommentThread::getId).toList());
+            threads.forEach(thread -> thread.setLiked(liked.contains(thread.getId())));
+        }
+        authorLoader.attachToThreads(threads);
+        return page;
+    }
+
+    private static long sortKeyOf(CommentSort sort, Date createdAt, long likeCount) {
+        return sort == CommentSort.TOP ? likeCount : createdAt.getTime();
     }
 
     /**
@@ -172,9 +300,7 @@ public class CommentService {
      * @return True if user has liked the comment, false otherwise
      */
     public boolean hasUserLikedComment(String commentId, String userId) {
-        Optional<User> userOptional = userRepository.findById(userId);
-        return userOptional.isPresent() &&
-                commentLikeRepository.findByCommentIdAndUserId(commentId, userOptional.get().getId()).isPresent();
+        return viewerLikeCache.hasLikedComment(userId, commentId);
     }
 
     /**
@@ -183,7 +309,7 @@ public class CommentService {
      * @return Number of likes
      */
     public long getCommentLikeCount(String commentId) {
-        return commentLikeRepository.countByCommentId(commentId);
+        return commentRepository.findLikeCounts(List.of(commentId)).getOrDefault(commentId, 0L);
     }
 
     /**
@@ -0,0 +1,58 @@
+package com.thinkflow.blog.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor made of a sort key and a document ID tie-breaker.
+ * Clients only ever see the encoded form and hand it back unchanged to fetch the next page.
+ */
+public class Cursor {
+
+    private final long sortKey; // Value of the primary sort field (e.g. createdAt as epoch millis)
+    private final String id;    // ID of the last document on the page, used to break ties
+
+    public Cursor(long sortKey, String id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public long getSortKey() {
+        return sortKey;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Encodes the cursor into a URL-safe token.
+     * @return Opaque cursor token
+     */
+    public String encode() {
+        String raw = sortKey + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @param token Opaque cursor token
+     * @return Decoded cursor, or null if no token was supplied
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new Cursor(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.thinkflow.blog.services;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single page of a keyset-paginated result together with the cursor for the next page.
+ * @param <T> Type of the items on the page
+ */
+public class CursorPage<T> {
+
+    /** Response header carrying the cursor of the next page; absent on the last page. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from a query that fetched one item more than the page size.
+     * The extra item only signals that another page exists and is dropped.
+     * @param fetched Items fetched with a limit of pageSize + 1
+     * @param pageSize Requested page size
+     * @param cursorOf Function producing the cursor of an item
+     * @return Page of at most pageSize items
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int pageSize, Function<T, Cursor> cursorOf) {
+        if (fetched.size() <= pageSize) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, pageSize);
+        return new CursorPage<>(items, cursorOf.apply(items.get(pageSize - 1)).encode());
+    }
+
+    /**
+     * Resolves the page size for a request, applying the default and the configured cap.
+     * @param requested Page size requested by the client, may be null
+     * @param defaultSize Page size to use when none was requested
+     * @param maxSize Upper bound for the page size
+     * @return Effective page size
+     */
+    public static int clampPageSize(Integer requested, int defaultSize, int maxSize) {
+        if (requested == null || requested <= 0) {
+            return Math.min(defaultSize, maxSize);
+        }
+        return Math.min(requested, maxSize);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Converts the page into a response whose body is the item list, as the
+     * endpoints returned before pagination, with the next cursor in a header.
+     * @return Response entity for the page
+     */
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
@@ -0,0 +1,395 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Comment;
+import com.thinkflow.blog.models.CommentLike;
+import com.thinkflow.blog.models.DeletionJob;
+import com.thinkflow.blog.models.Follow;
+import com.thinkflow.blog.models.Like;
+import com.thinkflow.blog.models.Notification;
+import com.thinkflow.blog.models.NotificationCounter;
+import com.thinkflow.blog.models.Post;
+import com.thinkflow.blog.models.Reply;
+import com.thinkflow.blog.models.TimelineEntry;
+import com.thinkflow.blog.models.User;
+import com.thinkflow.blog.repositories.CommentRepository;
+import com.thinkflow.blog.repositories.DeletionJobRepository;
+import com.thinkflow.blog.repositories.PostRepository;
+import com.thinkflow.blog.repositories.UserRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service running the cascading cleanup of deleted posts, comments and users in the background.
+ * Deleting one of them saves a job before anything is removed. The job's first step deletes
+ * the document itself, and the following steps remove the dependent likes, comments, replies,
+ * comment likes, timeline entries and references in bounded batches, recording progress after
+ * each one. A crash at any point therefore leaves a job that finishes the deletion. Jobs are
+ * claimed with a lease, so a job whose worker died is picked up again after the lease expires.
+ */
+@Service
+public class DeletionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeletionJobService.class);
+
+    @Autowired
+    private DeletionJobRepository deletionJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private LikeCountAggregator likeCountAggregator;
+
+    @Autowired
+    @Qualifier("appTaskScheduler")
+    private ThreadPoolTaskScheduler appTaskScheduler;
+
+    @Value("${deletion-jobs.batch-size:500}")
+    private int batchSize;
+
+    @Value("${deletion-jobs.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Value("${deletion-jobs.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${deletion-jobs.retry-delay-ms:30000}")
+    private long retryDelayMillis;
+
+    /**
+     * Enqueues the deletion of a post with its likes, comments and timeline entries.
+     * @param postId ID of the post to delete
+     * @return The created job
+     */
+    public DeletionJob enqueuePostDeletion(String postId) {
+        return enqueue(new DeletionJob(DeletionJob.Type.POST, postId));
+    }
+
+    /**
+     * Enqueues the deletion of a comment with its replies and likes.
+     * @param commentId ID of the comment to delete
+     * @return The created job
+     */
+    public DeletionJob enqueueCommentDeletion(String commentId) {
+        return enqueue(new DeletionJob(DeletionJob.Type.COMMENT, commentId));
+    }
+
+    /**
+     * Enqueues the deletion of a user with their posts, likes, comments, replies,
+     * comment likes, follows, timelines and notifications.
+     * @param userId ID of the user to delete
+     * @return The created job
+     */
+    public DeletionJob enqueueUserDeletion(String userId) {
+        return enqueue(new DeletionJob(DeletionJob.Type.USER, userId));
+    }
+
+    /**
+     * Deletes a comment and takes it off its post's comment count. Both the deleting
+     * request and the comment's job call this, so only the call that actually removes
+     * the document changes the count.
+     * @param comment Comment to delete
+     * @return true if this call removed the comment
+     */
+    public boolean deleteComment(Comment comment) {
+        if (deletionJobRepository.deleteByIds(Comment.class, List.of(comment.getId())) == 0) {
+            return false;
+        }
+        postRepository.incrementCommentCount(comment.getPostId(), -1);
+        return true;
+    }
+
+    /**
+     * Claims and runs jobs until none is left. Runs periodically to pick up jobs
+     * left behind by a restart and retries of failed runs.
+     */
+    @Scheduled(fixedDelayString = "${deletion-jobs.poll-ms:5000}")
+    public void processPending() {
+        String leaseToken = UUID.randomUUID().toString();
+        DeletionJob job;
+        while ((job = deletionJobRepository.claimNext(leaseToken, leaseExpiry())) != null) {
+            run(job, leaseToken);
+        }
+    }
+
+    private DeletionJob enqueue(DeletionJob job) {
+        DeletionJob saved = deletionJobRepository.save(job);
+        appTaskScheduler.execute(this::processPending);
+        return saved;
+    }
+
+    private void run(DeletionJob job, String leaseToken) {
+        List<Step> steps = stepsFor(job, leaseToken);
+        try {
+            if (job.getPendingChange() != null) {
+                // The previous run stopped inside a counted batch; finish it first
+                finishChange(job.getPendingChange());
+            }
+            for (int index = job.getStep(); index < steps.size(); index++) {
+                Step step = steps.get(index);
+                Batch batch;
+                do {
+                    batch = step.run(batchSize);
+                    if (!deletionJobRepository.recordProgress(job.getId(), leaseToken, index, batch.deleted(),
+                            batch.change(), leaseExpiry())) {
+                        throw new LeaseLostException();
+                    }
+                    if (batch.change() != null) {
+                        applyChange(batch.change());
+                    }
+                } while (batch.more());
+            }
+            deletionJobRepository.finish(job.getId(), leaseToken, DeletionJob.Status.DONE, null, null);
+        } catch (LeaseLostException e) {
+            logger.warn("Lost the lease on deletion job {}, leaving it to its new owner", job.getId());
+        } catch (RuntimeException e) {
+            boolean retry = job.getAttempts() < maxAttempts;
+            logger.error("Deletion job {} for {} {} failed (attempt {}{})", job.getId(), job.getType(), job.getTargetId(),
+                    job.getAttempts(), retry ? ", will retry" : ", giving up", e);
+            deletionJobRepository.finish(job.getId(), leaseToken,
+                    retry ? DeletionJob.Status.PENDING : DeletionJob.Status.FAILED, e.getMessage(),
+                    new Date(System.currentTimeMillis() + retryDelayMillis));
+        }
+    }
+
+    /**
+     * The cleanup of each job type as an ordered list of idempotent steps, so a resumed
+     * job can safely repeat the batch it was interrupted in.
+     */
+    private List<Step> stepsFor(DeletionJob job, String leaseToken) {
+        String targetId = job.getTargetId();
+        Lease lease = new Lease(job.getId(), leaseToken);
+        return switch (job.getType()) {
+            case POST -> List.<Step>of(
+                    limit -> deleteBatch(Post.class, Criteria.where("_id").is(targetId), limit),
+                    limit -> deleteComments(Criteria.where("postId").is(targetId), null, limit),
+                    limit -> deleteBatch(Like.class, Criteria.where("postId").is(targetId), limit),
+                    limit -> deleteBatch(TimelineEntry.class, Criteria.where("postId").is(targetId), limit),
+                    limit -> new Batch(userRepository.pullSavedPosts(List.of(targetId)), false));
+            case COMMENT -> List.<Step>of(
+                    limit -> deleteTargetComment(targetId),
+                    limit -> deleteBatch(CommentLike.class, Criteria.where("commentId").is(targetId), limit),
+                    limit -> deleteBatch(Reply.class, Criteria.where("commentId").is(targetId), limit));
+            case USER -> {
+                Criteria byUser = Criteria.where("user.$id").is(new ObjectId(targetId));
+                yield List.<Step>of(
+                        limit -> deleteBatch(User.class, Criteria.where("_id").is(targetId), limit),
+                        limit -> deletePosts(byUser, limit),
+                        limit -> deleteLikes(byUser, lease, limit),
+                        limit -> deleteComments(byUser, lease, limit),
+                        limit -> deleteBatch(Reply.class, byUser, limit),
+                        limit -> deleteCommentLikes(byUser, lease, limit),
+                        limit -> deleteFollows(Criteria.where("followerId").is(targetId), false, lease, limit),
+                        limit -> deleteFollows(Criteria.where("followeeId").is(targetId), true, lease, limit),
+                        limit -> deleteBatch(TimelineEntry.class, Criteria.where("ownerId").is(targetId), limit),
+                        limit -> deleteBatch(TimelineEntry.class, Criteria.where("authorId").is(targetId), limit),
+                        limit -> deleteBatch(Notification.class, Criteria.where("userId").is(targetId), limit),
+                        limit -> deleteBatch(NotificationCounter.class, Criteria.where("_id").is(targetId), limit));
+            }
+        };
+    }
+
+    private Batch deleteBatch(Class<?> entityClass, Criteria criteria, int limit) {
+        List<String> ids = deletionJobRepository.findIds(entityClass, criteria, limit);
+        return new Batch(deletionJobRepository.deleteByIds(entityClass, ids), ids.size() == limit);
+    }
+
+    /**
+     * Deletes a batch of posts together with everything that depends on them. The posts
+     * go last, so an interrupted batch is found and finished again on resume.
+     */
+    private Batch deletePosts(Criteria criteria, int limit) {
+        List<String> postIds = deletionJobRepository.findIds(Post.class, criteria, limit);
+        if (postIds.isEmpty()) {
+            return new Batch(0, false);
+        }
+        Criteria byPost = Criteria.where("postId").in(postIds);
+        long deleted = drain(batchLimit -> deleteComments(byPost, null, batchLimit), limit)
+                + drain(batchLimit -> deleteBatch(Like.class, byPost, batchLimit), limit)
+                + drain(batchLimit -> deleteBatch(TimelineEntry.class, byPost, batchLimit), limit)
+                + userRepository.pullSavedPosts(postIds)
+                + deletionJobRepository.deleteByIds(Post.class, postIds);
+        return new Batch(deleted, postIds.size() == limit);
+    }
+
+    /**
+     * Deletes a comment job's own comment, unless the deleting request already did.
+     */
+    private Batch deleteTargetComment(String commentId) {
+        List<Comment> comments = deletionJobRepository.findBatch(Comment.class, Criteria.where("_id").is(commentId), 1, "postId");
+        return new Batch(comments.stream().filter(this::deleteComment).count(), false);
+    }
+
+    /**
+     * Deletes a batch of likes and takes the ones this job removed off their posts' like counts.
+     */
+    private Batch deleteLikes(Criteria criteria, Lease lease, int limit) {
+        List<Like> likes = deletionJobRepository.findBatch(Like.class, criteria, limit, "postId");
+        return removeCounted(lease, Like.class, likes, Like::getId, Like::getPostId, Post.class, "likeCount", limit);
+    }
+
+    /**
+     * Deletes a batch of comment likes and takes the ones this job removed off their
+     * comments' like counts.
+     */
+    private Batch deleteCommentLikes(Criteria criteria, Lease lease, int limit) {
+        List<CommentLike> likes = deletionJobRepository.findBatch(CommentLike.class, criteria, limit, "commentId");
+        return removeCounted(lease, CommentLike.class, likes, CommentLike::getId, CommentLike::getCommentId,
+                Comment.class, "likeCount", limit);
+    }
+
+    /**
+     * Deletes a batch of follow edges and takes the ones this job removed off the counts
+     * of the users on the other side.
+     * @param ofFollowers True if the edges lead to the deleted user's followers, false if
+     *                    they lead to the users the deleted user followed
+     */
+    private Batch deleteFollows(Criteria criteria, boolean ofFollowers, Lease lease, int limit) {
+        List<Follow> follows = deletionJobRepository.findBatch(Follow.class, criteria, limit, "followerId", "followeeId");
+        return ofFollowers
+                ? removeCounted(lease, Follow.class, follows, Follow::getId, Follow::getFollowerId,
+                        User.class, "followingCount", limit)
+                : removeCounted(lease, Follow.class, follows, Follow::getId, Follow::getFolloweeId,
+                        User.class, "followerCount", limit);
+    }
+
+    /**
+     * Deletes a batch of comments together with their likes and replies. The comments go
+     * last, so an interrupted batch is found and finished again on resume.
+     * @param lease Lease of the job, to take the comments this job removed off their posts'
+     *              comment counts, or null when those posts are being deleted too
+     */
+    private Batch deleteComments(Criteria criteria, Lease lease, int limit) {
+        List<Comment> comments = deletionJobRepository.findBatch(Comment.class, criteria, limit, "postId");
+        if (comments.isEmpty()) {
+            return new Batch(0, false);
+        }
+        List<String> commentIds = comments.stream().map(Comment::getId).toList();
+        Criteria byComment = Criteria.where("commentId").in(commentIds);
+        long dependents = drain(batchLimit -> deleteBatch(CommentLike.class, byComment, batchLimit), limit)
+                + drain(batchLimit -> deleteBatch(Reply.class, byComment, batchLimit), limit);
+        if (lease == null) {
+            return new Batch(dependents + deletionJobRepository.deleteByIds(Comment.class, commentIds),
+                    comments.size() == limit);
+        }
+        Batch batch = removeCounted(lease, Comment.class, comments, Comment::getId, Comment::getPostId,
+                Post.class, "commentCount", limit);
+        return new Batch(dependents + batch.deleted(), batch.more(), batch.change());
+    }
+
+    /**
+     * Removes a batch of documents that add to counters on other documents. The batch is
+     * recorded on the job before anything is removed, and each document is removed on its
+     * own, so the returned change covers exactly the documents this job removed, not those
+     * a concurrent unlike or unfollow removed first. The caller records the change in the
+     * batch's checkpoint and then applies it.
+     */
+    private <T> Batch removeCounted(Lease lease, Class<T> entityClass, List<T> documents,
+                                    Function<T, String> idOf, Function<T, String> targetOf,
+                                    Class<?> counterClass, String counterField, int limit) {
+        if (documents.isEmpty()) {
+            return new Batch(0, false);
+        }
+        Map<String, String> targets = documents.stream().collect(Collectors.toMap(idOf, targetOf));
+        DeletionJob.CounterChange change = new DeletionJob.CounterChange(new ObjectId().toHexString(),
+                deletionJobRepository.collectionName(entityClass), deletionJobRepository.collectionName(counterClass),
+                counterField, targets);
+        if (!deletionJobRepository.recordPendingChange(lease.jobId(), lease.token(), change)) {
+            throw new LeaseLostException();
+        }
+        change.setRemoved(deletionJobRepository.removeEach(change.getCollection(), targets.keySet()));
+        return new Batch(change.getRemoved().size(), documents.size() == limit, change);
+    }
+
+    /**
+     * Finishes a counted batch left by an interrupted run. Without a record of what the run
+     * removed, every document of the batch that is gone is counted as removed by this job.
+     */
+    private void finishChange(DeletionJob.CounterChange change) {
+        if (change.getRemoved() == null) {
+            deletionJobRepository.removeEach(change.getCollection(), change.getTargets().keySet());
+            change.setRemoved(List.copyOf(change.getTargets().keySet()));
+        }
+        applyChange(change);
+    }
+
+    /**
+     * Takes a batch's removed documents off their counters. Safe to repeat: counters the
+     * batch was already applied to are skipped.
+     */
+    private void applyChange(DeletionJob.CounterChange change) {
+        Map<String, Long> deltas = negativeCountsBy(change.getRemoved().stream()
+                .map(change.getTargets()::get).toList());
+        deletionJobRepository.applyCounterDeltas(change.getCounterCollection(), change.getCounterField(), deltas,
+                change.getBatchId());
+        if (change.getCounterCollection().equals(deletionJobRepository.collectionName(Post.class))
+                && change.getCounterField().equals("likeCount")) {
+            likeCountAggregator.forget(deltas.keySet());
+        }
+    }
+
+    /**
+     * Runs a step until it reports no more work.
+     * @return Total number of documents removed
+     */
+    private static long drain(Step step, int limit) {
+        long deleted = 0;
+        Batch batch;
+        do {
+            batch = step.run(limit);
+            deleted += batch.deleted();
+        } while (batch.more());
+        return deleted;
+    }
+
+    private static Map<String, Long> negativeCountsBy(List<String> ids) {
+        return ids.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.summingLong(id -> -1L)));
+    }
+
+    private Date leaseExpiry() {
+        return new Date(System.currentTimeMillis() + leaseMillis);
+    }
+
+    /** One cleanup step, run repeatedly until it reports no more work. */
+    private interface Step {
+        Batch run(int limit);
+    }
+
+    /**
+     * Outcome of one batch: documents removed, whether more may remain, and the counter
+     * change of the documents removed, if any.
+     */
+    private record Batch(long deleted, boolean more, DeletionJob.CounterChange change) {
+        private Batch(long deleted, boolean more) {
+            this(deleted, more, null);
+        }
+    }
+
+    /** Lease of the job a step runs for. */
+    private record Lease(String jobId, String token) {}
+
+    /** Thrown when a checkpoint finds the job's lease taken over by another worker. */
+    private static final class LeaseLostException extends RuntimeException {
+    }
+}
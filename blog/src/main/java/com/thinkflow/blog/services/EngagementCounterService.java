@@ -0,0 +1,97 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.repositories.CommentRepository;
+import com.thinkflow.blog.repositories.LikeRepository;
+import com.thinkflow.blog.repositories.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service recomputing the denormalized like and comment counters of posts
+ * from the likes and comments collections, and the like counters of comments.
+ */
+@Service
+public class EngagementCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EngagementCounterService.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private LikeCountAggregator likeCountAggregator;
+
+    @Value("${counters.rebuild.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Initializes the counters of posts created before they were denormalized.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeMissingCounters() {
+        long updated = rebuild(true);
+        if (updated > 0) {
+            logger.info("Initialized engagement counters for {} posts", updated);
+        }
+        commentRepository.rebuildLikeCounts(true);
+    }
+
+    /**
+     * Recomputes the counters of every post in batches.
+     * @return Number of posts whose counters were rewritten
+     */
+    public long rebuildAll() {
+        // Pending write-behind deltas would otherwise be added on top of the rebuilt counts
+        likeCountAggregator.flush();
+        long updated = rebuild(false);
+        likeCountAggregator.forgetAll();
+        commentRepository.rebuildLikeCounts(false);
+        logger.info("Rebuilt engagement counters for {} posts and their comments", updated);
+        return updated;
+    }
+
+    /**
+     * Recomputes the counters of specific posts.
+     * @param postIds IDs of the posts
+     */
+    public void rebuild(Collection<String> postIds) {
+        List<String> ids = new ArrayList<>(postIds);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            postRepository.setCounters(batch, likeRepository.countByPostIds(batch), commentRepository.countByPostIds(batch));
+        }
+        likeCountAggregator.forget(ids);
+    }
+
+    private long rebuild(boolean onlyMissing) {
+        long updated = 0;
+        String lastId = null;
+        while (true) {
+            List<String> postIds = postRepository.findIdBatch(lastId, onlyMissing, batchSize);
+            if (postIds.isEmpty()) {
+                return updated;
+            }
+            Map<String, Long> likeCounts = likeRepository.countByPostIds(postIds);
+            Map<String, Long> commentCounts = commentRepository.countByPostIds(postIds);
+            postRepository.setCounters(postIds, likeCounts, commentCounts);
+            updated += postIds.size();
+            lastId = postIds.get(postIds.size() - 1);
+        }
+    }
+}
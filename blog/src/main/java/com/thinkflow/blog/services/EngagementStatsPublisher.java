@@ -0,0 +1,217 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Post;
+import com.thinkflow.blog.repositories.CommentRepository;
+import com.thinkflow.blog.repositories.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Pushes like and comment counts to clients watching a post or comment, replacing
+ * polling of the like-count endpoints. Changes only mark the post or comment dirty;
+ * a scheduled flush reads the current counts of everything marked since the last
+ * flush in one query per kind and publishes them on /topic/posts/{postId}/stats and
+ * /topic/comments/{commentId}/stats. Each post or comment therefore gets at most one
+ * update per interval, and only if someone is subscribed to its topic.
+ */
+@Component
+public class EngagementStatsPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EngagementStatsPublisher.class);
+
+    private static final Pattern STATS_TOPIC = Pattern.compile("^/topic/(posts|comments)/([^/]+)/stats$");
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private LikeCountAggregator likeCountAggregator;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    private final Set<String> dirtyPosts = ConcurrentHashMap.newKeySet();
+    private final Set<String> dirtyComments = ConcurrentHashMap.newKeySet();
+
+    /** Number of local subscriptions per stats topic. */
+    private final Map<String, Integer> subscribers = new ConcurrentHashMap<>();
+
+    /** Stats topic of each local subscription, keyed by session ID and subscription ID. */
+    private final Map<String, Map<String, String>> sessionTopics = new ConcurrentHashMap<>();
+
+    /**
+     * Records that a post's like or comment count changed.
+     * @param postId ID of the post
+     */
+    public void postChanged(String postId) {
+        dirtyPosts.add(postId);
+    }
+
+    /**
+     * Records that a comment's like count changed.
+     * @param commentId ID of the comment
+     */
+    public void commentChanged(String commentId) {
+        dirtyComments.add(commentId);
+    }
+
+    /**
+     * Publishes the current counts of everything that changed since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${engagement.stats.debounce-ms:1000}")
+    public void flush() {
+        List<String> postIds = drain(true);
+        List<String> commentIds = drain(false);
+        try {
+            if (!postIds.isEmpty()) {
+                for (Post post : postRepository.findCounters(postIds)) {
+                    long likeCount = likeCountAggregator.currentCount(post.getId(), post.getLikeCount());
+                    messagingTemplate.convertAndSend(postTopic(post.getId()),
+                            new PostStats(post.getId(), likeCount, post.getCommentCount()));
+                }
+            }
+            if (!commentIds.isEmpty()) {
+                commentRepository.findLikeCounts(commentIds).forEach((commentId, likeCount) ->
+                        messagingTemplate.convertAndSend(commentTopic(commentId), new CommentStats(commentId, likeCount)));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to publish engagement stats for {} posts and {} comments",
+                    postIds.size(), commentIds.size(), e);
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = headers.getDestination();
+        if (destination == null || !STATS_TOPIC.matcher(destination).matches()) {
+            return;
+        }
+        sessionTopics.computeIfAbsent(headers.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(headers.getSubscriptionId(), destination);
+        subscribers.merge(destination, 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> topics = sessionTopics.get(headers.getSessionId());
+        if (topics != null) {
+            release(topics.remove(headers.getSubscriptionId()));
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> topics = sessionTopics.remove(sessionIdOf(event));
+        if (topics != null) {
+            topics.values().forEach(this::release);
+        }
+    }
+
+    /**
+     * Takes the dirty IDs of one kind that have subscribers. Each ID is removed before its
+     * counts are read, so a change that marks it again meanwhile is published next flush.
+     */
+    private List<String> drain(boolean posts) {
+        List<String> drained = new ArrayList<>();
+        for (Iterator<String> it = (posts ? dirtyPosts : dirtyComments).iterator(); it.hasNext(); ) {
+            String id = it.next();
+            it.remove();
+            if (isWatched(posts ? postTopic(id) : commentTopic(id))) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * A topic is watched if a session on this instance subscribed to it, or, with the
+     * broker relay, a logged-in user on another instance did.
+     */
+    private boolean isWatched(String topic) {
+        if (subscribers.getOrDefault(topic, 0) > 0) {
+            return true;
+        }
+        return userRegistry.getUserCount() > 0
+                && !userRegistry.findSubscriptions(subscription -> topic.equals(subscription.getDestination())).isEmpty();
+    }
+
+    private void release(String topic) {
+        if (topic != null) {
+            subscribers.computeIfPresent(topic, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static String sessionIdOf(AbstractSubProtocolEvent event) {
+        return SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+    }
+
+    private static String postTopic(String postId) {
+        return "/topic/posts/" + postId + "/stats";
+    }
+
+    private static String commentTopic(String commentId) {
+        return "/topic/comments/" + commentId + "/stats";
+    }
+
+    /**
+     * Counts published on a post's stats topic
+     */
+    public static class PostStats {
+        private final String postId;
+        private final long likeCount;
+        private final long commentCount;
+
+        public PostStats(String postId, long likeCount, long commentCount) {
+            this.postId = postId;
+            this.likeCount = likeCount;
+            this.commentCount = commentCount;
+        }
+
+        public String getPostId() { return postId; }
+        public long getLikeCount() { return likeCount; }
+        public long getCommentCount() { return commentCount; }
+    }
+
+    /**
+     * Counts published on a comment's stats topic
+     */
+    public static class CommentStats {
+        private final String commentId;
+        private final long likeCount;
+
+        public CommentStats(String commentId, long likeCount) {
+            this.commentId = commentId;
+            this.likeCount = likeCount;
+        }
+
+        public String getCommentId() { return commentId; }
+        public long getLikeCount() { return likeCount; }
+    }
+}
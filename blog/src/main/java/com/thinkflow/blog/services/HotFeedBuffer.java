@@ -0,0 +1,236 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Post;
+import com.thinkflow.blog.repositories.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free in-process buffer holding the newest posts of the global feed.
+ * The buffer is an immutable snapshot swapped atomically on every change, so readers never
+ * block and never see a partially applied update. It always holds a contiguous window of
+ * the newest posts; once full, adding a post evicts the oldest one like a ring buffer.
+ * Removed posts and authors are remembered until a reload can no longer return them, so
+ * a reload whose query was already running cannot bring a deleted post back.
+ */
+@Component
+public class HotFeedBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotFeedBuffer.class);
+
+    /** Orders posts newest first, breaking ties on the ID like the feed index does. */
+    private static final Comparator<Post> NEWEST_FIRST = Comparator
+            .comparing(Post::getCreatedAt)
+            .thenComparing(Post::getId)
+            .reversed();
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${feed.hot-head.capacity:200}")
+    private int capacity;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    /** Posts removed locally, with the removal number at which they were removed. */
+    private final Map<String, Long> removedPosts = new ConcurrentHashMap<>();
+
+    /** Deleted authors whose posts may still be returned until their deletion job removes them. */
+    private final Set<String> removedAuthors = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong removals = new AtomicLong();
+
+    /**
+     * Serves a feed page from memory if the buffered window covers it.
+     * @param after Keyset position of the last post already seen, or null for the first page
+     * @param limit Number of posts wanted
+     * @return Copies of the posts for the page, or empty if the request reaches past the buffer
+     */
+    public Optional<List<Post>> page(Cursor after, int limit) {
+        Snapshot current = snapshot.get();
+        if (!current.warm) {
+            current = reload();
+        }
+
+        List<Post> page = new ArrayList<>(limit);
+        for (Post post : current.posts) {
+            if (after == null || isBefore(post, after)) {
+                page.add(copyOf(post));
+                if (page.size() == limit) {
+                    return Optional.of(page);
+                }
+            }
+        }
+        return current.complete ? Optional.of(page) : Optional.empty();
+    }
+
+    /**
+     * Adds a newly created post, evicting the oldest buffered post when full.
+     * @param post Newly created post
+     */
+    public void offer(Post post) {
+        Post stored = copyOf(post);
+        snapshot.updateAndGet(current -> {
+            if (!current.warm) {
+                return current;
+            }
+            List<Post> posts = new ArrayList<>(current.posts.size() + 1);
+            posts.addAll(current.posts);
+            posts.removeIf(existing -> existing.getId().equals(stored.getId()));
+            posts.add(stored);
+            posts.sort(NEWEST_FIRST);
+            boolean complete = current.complete;
+            if (posts.size() > capacity) {
+                posts = posts.subList(0, capacity);
+                complete = false;
+            }
+            return new Snapshot(List.copyOf(posts), complete, true);
+        });
+    }
+
+    /**
+     * Replaces the buffered copy of an updated post, if it is buffered.
+     * @param post Updated post
+     */
+    public void replace(Post post) {
+        Post stored = copyOf(post);
+        snapshot.updateAndGet(current -> {
+            if (current.posts.stream().noneMatch(existing -> existing.getId().equals(stored.getId()))) {
+                return current;
+            }
+            List<Post> posts = current.posts.stream()
+                    .map(existing -> existing.getId().equals(stored.getId()) ? stored : existing)
+                    .toList();
+            return new Snapshot(posts, current.complete, current.warm);
+        });
+    }
+
+    /**
+     * Removes all buffered posts of a deleted author.
+     * @param authorId ID of the deleted author
+     */
+    public void removeAuthor(String authorId) {
+        removedAuthors.add(authorId);
+        snapshot.updateAndGet(current -> new Snapshot(
+                current.posts.stream().filter(existing -> !authorId.equals(AuthorLoader.authorIdOf(existing.getUser()))).toList(),
+                current.complete, current.warm));
+    }
+
+    /**
+     * Removes a deleted post from the buffer.
+     * @param postId ID of the deleted post
+     */
+    public void remove(String postId) {
+        removedPosts.put(postId, removals.incrementAndGet());
+        snapshot.updateAndGet(current -> new Snapshot(
+                current.posts.stream().filter(existing -> !existing.getId().equals(postId)).toList(),
+                current.complete, current.warm));
+    }
+
+    /**
+     * Periodically reloads the buffer so posts written through other application
+     * instances show up within the refresh interval.
+     */
+    @Scheduled(fixedDelayString = "${feed.hot-head.refresh-ms:10000}")
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * Reloads the buffer from the repository.
+     * @return The new snapshot
+     */
+    private Snapshot reload() {
+        long removalsBeforeQuery = removals.get();
+        List<Post> loaded = postRepository.findFeedPage(null, null, capacity);
+        List<Post> loadedCopies = loaded.stream().map(HotFeedBuffer::copyOf).toList();
+        Snapshot installed = snapshot.updateAndGet(current -> {
+            // Checked when installing, so removals made while the query ran are filtered too
+            Snapshot fresh = new Snapshot(loadedCopies.stream().filter(post -> !isRemoved(post)).toList(),
+                    loaded.size() < capacity, true);
+            // Keep posts offered locally while the reload query was running
+            if (!current.warm || current.posts.isEmpty() || fresh.posts.isEmpty()) {
+                return fresh;
+            }
+            Post newestLoaded = fresh.posts.get(0);
+            List<Post> posts = new ArrayList<>(fresh.posts);
+            current.posts.stream()
+                    .filter(post -> NEWEST_FIRST.compare(post, newestLoaded) < 0)
+                    .forEach(posts::add);
+            posts.sort(NEWEST_FIRST);
+            boolean complete = fresh.complete;
+            if (posts.size() > capacity) {
+                posts = posts.subList(0, capacity);
+                complete = false;
+            }
+            return new Snapshot(List.copyOf(posts), complete, true);
+        });
+        // Posts are deleted before they are removed here, so a query started after their
+        // removal no longer returns them; deleted authors' posts go once their job removed them
+        removedPosts.values().removeIf(removal -> removal <= removalsBeforeQuery);
+        removedAuthors.removeIf(authorId -> loaded.stream()
+                .noneMatch(post -> authorId.equals(AuthorLoader.authorIdOf(post.getUser()))));
+        logger.debug("Hot feed buffer reloaded with {} posts", installed.posts.size());
+        return installed;
+    }
+
+    private boolean isRemoved(Post post) {
+        return removedPosts.containsKey(post.getId())
+                || (!removedAuthors.isEmpty() && removedAuthors.contains(AuthorLoader.authorIdOf(post.getUser())));
+    }
+
+    private static boolean isBefore(Post post, Cursor after) {
+        long createdAt = post.getCreatedAt().getTime();
+        return createdAt < after.getSortKey()
+                || (createdAt == after.getSortKey() && post.getId().compareTo(after.getId()) < 0);
+    }
+
+    /**
+     * Shallow copy of a post so buffered snapshots are never mutated by callers.
+     */
+    static Post copyOf(Post post) {
+        Post copy = new Post();
+        copy.setId(post.getId());
+        copy.setTitle(post.getTitle());
+        copy.setContent(post.getContent());
+        copy.setMediaUrls(post.getMediaUrls() == null ? null : List.copyOf(post.getMediaUrls()));
+        copy.setFileTypes(post.getFileTypes() == null ? null : List.copyOf(post.getFileTypes()));
+        copy.setTags(post.getTags() == null ? null : List.copyOf(post.getTags()));
+        copy.setUser(post.getUser());
+        copy.setCreatedAt(post.getCreatedAt());
+        copy.setLikeCount(post.getLikeCount());
+        copy.setCommentCount(post.getCommentCount());
+        return copy;
+    }
+
+    /**
+     * Immutable view of the buffered window.
+     */
+    private static class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(List.of(), false, false);
+
+        private final List<Post> posts; // Newest first
+        private final boolean complete; // True if there are no posts older than the buffered ones
+        private final boolean warm;     // False until the first load from the repository
+
+        Snapshot(List<Post> posts, boolean complete, boolean warm) {
+            this.posts = posts;
+            this.complete = complete;
+            this.warm = warm;
+        }
+    }
+}
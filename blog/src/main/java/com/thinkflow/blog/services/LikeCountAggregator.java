@@ -0,0 +1,287 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Post;
+import com.thinkflow.blog.repositories.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in write-behind buffer for post like counts. Toggles add their delta to an
+ * in-memory per-post counter instead of updating the post document, and a
+ * scheduled flush applies the accumulated deltas with one bulk write. Like
+ * documents are still written synchronously and remain the source of truth;
+ * only the denormalized likeCount lags by up to one flush interval.
+ * <p>
+ * Toggles add to a striped {@link LongAdder}, so concurrent likes of a hot post
+ * do not contend on one lock. Each counter also caches the post's stored like
+ * count, so a toggle answers without reading the post; every flush re-reads the
+ * stored counts of the posts it wrote, which picks up other instances' flushes.
+ * Only the flush moves deltas from pending to in-flight and into the stored count,
+ * so a count read while a flush is moving them may be briefly off. A batch that
+ * fails is kept and retried with the same flush ID; the post update skips posts
+ * that already carry that ID, so a retry never applies a delta twice.
+ */
+@Component
+public class LikeCountAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeCountAggregator.class);
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Value("${likes.write-behind.enabled:false}")
+    private boolean enabled;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Counters evicted by the previous flush, drained once more by the next one so a
+     * toggle that picked a counter up just before it was evicted is not lost.
+     * Guarded by the flush lock, like the failed batch below.
+     */
+    private List<Counter> retired = new ArrayList<>();
+
+    /** Batch whose write failed, retried before anything else. */
+    private Map<String, Long> failedBatch;
+    private Map<Counter, Long> failedTaken;
+    private String failedBatchId;
+
+    /**
+     * @return true if like counts are written behind instead of per toggle
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a like count change to be flushed later.
+     * @param postId ID of the post
+     * @param delta Amount to add, negative to subtract
+     * @return The post with its owner and current like count, or null if it does not exist
+     */
+    public Post add(String postId, long delta) {
+        while (true) {
+            Counter counter = counters.get(postId);
+            if (counter == null) {
+                List<Post> posts = postRepository.findCounters(List.of(postId));
+                if (posts.isEmpty()) {
+                    return null;
+                }
+                counter = counters.computeIfAbsent(postId, id -> new Counter(posts.get(0)));
+            }
+            // An evicted counter is no longer flushed; load a fresh one instead
+            if (!counter.evicted) {
+                counter.pending.add(delta);
+                if (!counter.touched) {
+                    counter.touched = true;
+                }
+                return counter.snapshot();
+            }
+        }
+    }
+
+    /**
+     * Returns the current like count of a post as seen by this instance.
+     * @param postId ID of the post
+     * @param storedCount likeCount read from the post document
+     * @return The cached count if the post has a counter, otherwise the stored count
+     *         plus any unflushed delta
+     */
+    public long currentCount(String postId, long storedCount) {
+        Counter counter = counters.get(postId);
+        if (counter == null || counter.evicted) {
+            return storedCount;
+        }
+        Base base = counter.base;
+        long stored = counter.stale ? storedCount : base.stored();
+        return stored + base.inFlight() + counter.pending.sum();
+    }
+
+    /**
+     * Marks the cached stored counts of posts whose documents were changed outside
+     * the aggregator; the next flush re-reads them.
+     * @param postIds IDs of the posts
+     */
+    public void forget(Collection<String> postIds) {
+        for (String postId : postIds) {
+            Counter counter = counters.get(postId);
+            if (counter != null) {
+                counter.stale = true;
+            }
+        }
+    }
+
+    /**
+     * Marks every cached stored count as out of date, e.g. after a rebuild of all counters.
+     */
+    public void forgetAll() {
+        counters.values().forEach(counter -> counter.stale = true);
+    }
+
+    /**
+     * Writes all accumulated deltas to Mongo in one bulk write, then re-reads the
+     * stored counts of the posts written. A failed batch is retried with the same
+     * flush ID on the next flush before new deltas are taken.
+     */
+    @Scheduled(fixedDelayString = "${likes.write-behind.flush-ms:1000}")
+    public synchronized void flush() {
+        if (failedBatch != null) {
+            if (!write(failedBatch, failedBatchId)) {
+                return;
+            }
+            refresh(failedTaken);
+            failedBatch = null;
+            failedTaken = null;
+            failedBatchId = null;
+        }
+
+        Map<String, Long> batch = new HashMap<>();
+        Map<Counter, Long> taken = new IdentityHashMap<>();
+        for (Counter counter : retired) {
+            take(counter, batch, taken);
+        }
+        retired = new ArrayList<>();
+        counters.forEach((postId, counter) -> {
+            if (!take(counter, batch, taken) && !counter.touched && counter.base.inFlight() == 0) {
+                // Not toggled for a whole interval, so the next toggle reloads the stored count
+                counter.evicted = true;
+                counters.remove(postId, counter);
+                retired.add(counter);
+            } else if (counter.stale) {
+                taken.putIfAbsent(counter, 0L);
+            }
+            counter.touched = false;
+        });
+        if (taken.isEmpty()) {
+            return;
+        }
+
+        String flushId = new ObjectId().toHexString();
+        if (!batch.isEmpty() && !write(batch, flushId)) {
+            failedBatch = batch;
+            failedTaken = taken;
+            failedBatchId = flushId;
+            return;
+        }
+        refresh(taken);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        // Also drain the counters the last flush retired
+        flush();
+        if (failedBatch != null) {
+            logger.error("Like count deltas for {} posts could not be written before shutdown", failedBatch.size());
+        }
+    }
+
+    /**
+     * Moves a counter's pending delta to in-flight and into the batch.
+     * @return true if there was a delta to take
+     */
+    private boolean take(Counter counter, Map<String, Long> batch, Map<Counter, Long> taken) {
+        long delta = counter.pending.sum();
+        if (delta == 0) {
+            return false;
+        }
+        Base base = counter.base;
+        counter.base = new Base(base.stored(), base.inFlight() + delta);
+        counter.pending.add(-delta);
+        batch.merge(counter.post.getId(), delta, Long::sum);
+        taken.merge(counter, delta, Long::sum);
+        return true;
+    }
+
+    /**
+     * @return true if the batch was written
+     */
+    private boolean write(Map<String, Long> batch, String flushId) {
+        try {
+            postRepository.incrementLikeCounts(batch, flushId);
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush like counts for {} posts, retrying on next flush", batch.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Moves written deltas from in-flight into the stored counts, then replaces the
+     * stored counts with what the post documents now hold.
+     */
+    private void refresh(Map<Counter, Long> written) {
+        written.forEach((counter, delta) -> {
+            Base base = counter.base;
+            counter.base = new Base(base.stored() + delta, base.inFlight() - delta);
+        });
+        List<String> postIds = written.keySet().stream().map(counter -> counter.post.getId()).distinct().toList();
+        written.keySet().forEach(counter -> counter.stale = false);
+        Map<String, Long> stored = new HashMap<>();
+        try {
+            postRepository.findCounters(postIds).forEach(post -> stored.put(post.getId(), post.getLikeCount()));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to re-read like counts for {} posts", postIds.size(), e);
+            written.keySet().forEach(counter -> counter.stale = true);
+            return;
+        }
+        written.keySet().forEach(counter -> {
+            Long count = stored.get(counter.post.getId());
+            if (count == null) {
+                // The post is gone; drop its counter so toggles stop answering for it
+                counter.evicted = true;
+                counters.remove(counter.post.getId(), counter);
+            } else {
+                Base base = counter.base;
+                counter.base = new Base(count, base.inFlight());
+            }
+        });
+    }
+
+    /** likeCount on the post document as of the last load or refresh, and deltas being written. */
+    private record Base(long stored, long inFlight) {
+    }
+
+    /**
+     * Like count state of one post. Toggles only add to pending; base is replaced
+     * only by the flush, which holds the flush lock.
+     */
+    private static final class Counter {
+        private final Post post;  // Post summary with its owner, for toggle responses
+        private final LongAdder pending = new LongAdder();  // Deltas not yet taken by a flush
+        private volatile Base base;
+        private volatile boolean touched;  // Changed since the previous flush
+        private volatile boolean stale;    // Stored count may be out of date; re-read on the next flush
+        private volatile boolean evicted;
+
+        private Counter(Post post) {
+            this.post = post;
+            this.base = new Base(post.getLikeCount(), 0);
+        }
+
+        private Post snapshot() {
+            Base current = base;
+            Post copy = new Post();
+            copy.setId(post.getId());
+            copy.setUser(post.getUser());
+            copy.setCommentCount(post.getCommentCount());
+            copy.setLikeCount(current.stored() + current.inFlight() + pending.sum());
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Notification;
+import com.thinkflow.blog.repositories.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Coalescing stage of the notification pipeline. Events of a coalescible type (likes and
+ * follows by default) are held for one window and merged per user, type and target; at
+ * the end of the window each group becomes a single in-place update of the user's unread
+ * aggregated notification ("Alice and 41 others liked your post.") and a single push.
+ * A viral post therefore costs its author one write and one push per window instead of
+ * one per like. Groups are flushed by the {@link NotificationPipeline} worker that owns
+ * their recipient, so aggregates and individual notifications of a user are numbered
+ * and pushed in order.
+ */
+@Component
+public class NotificationCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationCoalescer.class);
+
+    private static final Map<String, String> ACTIONS = Map.of(
+            "LIKE", "liked your post.",
+            "FOLLOW", "started following you.");
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    @Autowired
+    private NotificationReplayLog replayLog;
+
+    @Value("${notifications.coalesce.types:LIKE,FOLLOW}")
+    private Set<String> types;
+
+    @Value("${notifications.coalesce.recent-actors:3}")
+    private int recentActors;
+
+    @Value("${notifications.coalesce.tracked-actors:200}")
+    private int trackedActors;
+
+    @Value("${notifications.coalesce.window-ms:5000}")
+    private long windowMillis;
+
+    private final Map<Key, Group> pending = new HashMap<>();
+
+    /**
+     * Workers flush their own recipients' groups under the read lock; a full flush takes
+     * the write lock, so it returns only after every earlier group was written.
+     */
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    /**
+     * @param notification A notification taken off the pipeline queue
+     * @return true if notifications of its type are coalesced
+     */
+    public boolean accepts(Notification notification) {
+        return types.contains(notification.getType()) && ACTIONS.containsKey(notification.getType());
+    }
+
+    /**
+     * Adds an event to its group for the current window. An actor repeating the same
+     * event (e.g. unliking and liking again) is counted once, within the window here and
+     * across windows by the actor IDs stored on the aggregate.
+     * @param notification Notification describing the event, with its actor
+     */
+    public synchronized void add(Notification notification) {
+        Key key = new Key(notification.getUserId(), notification.getType(), notification.getTargetId());
+        Group group = pending.computeIfAbsent(key, k -> new Group());
+        String actorId = notification.getActorId() != null ? notification.getActorId() : notification.getMessage();
+        // Re-inserting moves a repeat actor to the newest position without counting it again
+        group.actors.remove(actorId);
+        group.actors.put(actorId, actorName(notification));
+    }
+
+    /**
+     * Writes and pushes the groups of the given recipients whose window has closed.
+     * @param ownsUser Selects the recipients of the calling worker
+     */
+    public void flushDue(Predicate<String> ownsUser) {
+        long openedBefore = System.currentTimeMillis() - windowMillis;
+        flushLock.readLock().lock();
+        try {
+            take((key, group) -> group.openedAt <= openedBefore && ownsUser.test(key.userId())).forEach(this::deliver);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes and pushes every pending group, whether or not its window has closed. Used on
+     * shutdown, once the workers have stopped.
+     */
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            take((key, group) -> true).forEach(this::deliver);
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    private synchronized Map<Key, Group> take(BiPredicate<Key, Group> due) {
+        Map<Key, Group> taken = new HashMap<>();
+        for (Iterator<Map.Entry<Key, Group>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Group> entry = it.next();
+            if (due.test(entry.getKey(), entry.getValue())) {
+                taken.put(entry.getKey(), entry.getValue());
+                it.remove();
+            }
+        }
+        return taken;
+    }
+
+    private void deliver(Key key, Group group) {
+        List<String> newestFirst = new ArrayList<>(group.actors.values()).reversed();
+        List<String> actorIds = new ArrayList<>(group.actors.keySet()).reversed();
+        try {
+            long seq = replayLog.nextSequence(key.userId());
+            Notification merged = notificationRepository.mergeEvents(key.userId(), key.type(), key.targetId(),
+                    actorIds.subList(0, Math.min(trackedActors, actorIds.size())),
+                    newestFirst.subList(0, Math.min(recentActors, newestFirst.size())), recentActors, trackedActors,
+                    seq, ACTIONS.get(key.type()));
+            replayLog.record(merged);
+            messagingTemplate.convertAndSendToUser(key.userId(), NotificationService.USER_DESTINATION, merged);
+            if (merged.getCreatedSeq() == seq) {
+                // The merge created the notification rather than updating an unread one
+                unreadCounter.adjust(key.userId(), 1);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to deliver {} coalesced {} notifications to user {}",
+                    newestFirst.size(), key.type(), key.userId(), e);
+        }
+    }
+
+    private static String actorName(Notification notification) {
+        List<String> actors = notification.getRecentActors();
+        return actors.isEmpty() ? "Someone" : actors.get(0);
+    }
+
+    private record Key(String userId, String type, String targetId) {}
+
+    /** Actors of one group, keyed by actor ID in the order they acted. */
+    private static final class Group {
+        private final LinkedHashMap<String, String> actors = new LinkedHashMap<>();
+        private final long openedAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,274 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Notification;
+import com.thinkflow.blog.repositories.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-process queue between the engagement requests that raise notifications
+ * and their delivery. Requests only enqueue; virtual-thread workers take notifications
+ * off the queue in batches, hand coalescible ones to the {@link NotificationCoalescer},
+ * persist the rest with one insertMany and then push the saved notifications over STOMP.
+ * <p>
+ * The queue is split into one shard per worker, and every notification goes to the
+ * shard of its recipient. Each worker also flushes the coalesced groups of its own
+ * recipients, so all of a user's notifications are numbered and pushed by one thread
+ * and reach the client in sequence order.
+ * <p>
+ * When a shard is full, publishers wait up to the offer timeout for room, which slows
+ * producers down to the rate the workers sustain; a notification that still finds no
+ * room is dropped and counted. On shutdown the queue stops accepting and the workers
+ * drain what is left before the application context closes.
+ */
+@Component
+public class NotificationPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationPipeline.class);
+
+    private static final long POLL_MILLIS = 200;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private NotificationCoalescer coalescer;
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    @Autowired
+    private NotificationReplayLog replayLog;
+
+    @Value("${notifications.queue.capacity:10000}")
+    private int capacity;
+
+    @Value("${notifications.queue.offer-timeout-ms:50}")
+    private long offerTimeoutMillis;
+
+    @Value("${notifications.workers:2}")
+    private int workerCount;
+
+    @Value("${notifications.batch-size:100}")
+    private int batchSize;
+
+    @Value("${notifications.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMillis;
+
+    private final List<BlockingQueue<Notification>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        int shardCapacity = Math.max(1, capacity / workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            queues.add(new ArrayBlockingQueue<>(shardCapacity));
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            int shard = i;
+            workers.add(Thread.ofVirtual().name("notification-worker-" + i).start(() -> work(shard)));
+        }
+    }
+
+    /**
+     * Queues a notification for persistence and delivery. Waits briefly for room when
+     * the recipient's shard is full and drops the notification if none frees up.
+     * @param notification Notification to deliver
+     * @return true if the notification was queued, false if it was dropped
+     */
+    public boolean publish(Notification notification) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        try {
+            if (queues.get(shardOf(notification.getUserId())).offer(notification, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                published.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+        logger.debug("Notification queue full, dropped {} notification for user {}",
+                notification.getType(), notification.getUserId());
+        return false;
+    }
+
+    /**
+     * @return Counters describing the pipeline's throughput and losses since startup
+     */
+    public Stats getStats() {
+        return new Stats(queued(), capacity, published.sum(), dropped.sum(),
+                coalesced.sum(), persisted.sum(), failed.sum(), batches.sum());
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() throws InterruptedException {
+        running = false;
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        int undelivered = queued();
+        if (undelivered > 0) {
+            logger.warn("Shutting down with {} undelivered notifications", undelivered);
+        }
+        coalescer.flush();
+    }
+
+    private int shardOf(String userId) {
+        return Math.floorMod(userId.hashCode(), queues.size());
+    }
+
+    private int queued() {
+        return queues.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    private void work(int shard) {
+        BlockingQueue<Notification> queue = queues.get(shard);
+        List<Notification> batch = new ArrayList<>(batchSize);
+        long nextCoalescerCheck = 0;
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    deliver(batch);
+                }
+                long now = System.currentTimeMillis();
+                if (now >= nextCoalescerCheck) {
+                    coalescer.flushDue(userId -> shardOf(userId) == shard);
+                    nextCoalescerCheck = now + POLL_MILLIS;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<Notification> batch) {
+        List<Notification> individual = new ArrayList<>(batch.size());
+        for (Notification notification : batch) {
+            if (coalescer.accepts(notification)) {
+                coalescer.add(notification);
+                coalesced.increment();
+            } else {
+                individual.add(notification);
+            }
+        }
+        if (individual.isEmpty()) {
+            return;
+        }
+
+        // Sequence numbers and unread counts are taken together, one counter write per user
+        Map<String, Long> unreadCounts = new HashMap<>();
+        List<Notification> saved;
+        try {
+            replayLog.assignSequences(individual, unreadCounts);
+            saved = notificationRepository.insert(individual);
+        } catch (RuntimeException e) {
+            failed.add(individual.size());
+            logger.error("Failed to persist a batch of {} notifications", individual.size(), e);
+            undoUnreadCounts(individual, unreadCounts.keySet());
+            return;
+        }
+        persisted.add(saved.size());
+        batches.increment();
+        unreadCounts.forEach(unreadCounter::publish);
+        for (Notification notification : saved) {
+            replayLog.record(notification);
+            try {
+                messagingTemplate.convertAndSendToUser(notification.getUserId(), NotificationService.USER_DESTINATION, notification);
+            } catch (RuntimeException e) {
+                // The notification is stored, so the client still gets it on replay or its next fetch
+                logger.warn("Failed to push notification {} to user {}", notification.getId(), notification.getUserId(), e);
+            }
+        }
+    }
+
+    /**
+     * Takes the notifications of a batch that was not stored back off the unread counts
+     * their users' counter writes already added them to.
+     */
+    private void undoUnreadCounts(List<Notification> notifications, Set<String> counted) {
+        notifications.stream()
+                .filter(notification -> counted.contains(notification.getUserId()))
+                .collect(Collectors.groupingBy(Notification::getUserId, Collectors.counting()))
+                .forEach((userId, count) -> {
+                    try {
+                        unreadCounter.adjust(userId, -count);
+                    } catch (RuntimeException e) {
+                        logger.warn("Failed to undo the unread count of user {}", userId, e);
+                    }
+                });
+    }
+
+    /**
+     * Snapshot of the pipeline counters
+     */
+    public static class Stats {
+        private final int queued;
+        private final int capacity;
+        private final long published;
+        private final long dropped;
+        private final long coalesced;
+        private final long persisted;
+        private final long failed;
+        private final long batches;
+
+        public Stats(int queued, int capacity, long published, long dropped, long coalesced,
+                     long persisted, long failed, long batches) {
+            this.queued = queued;
+            this.capacity = capacity;
+            this.published = published;
+            this.dropped = dropped;
+            this.coalesced = coalesced;
+            this.persisted = persisted;
+            this.failed = failed;
+            this.batches = batches;
+        }
+
+        public int getQueued() { return queued; }
+        public int getCapacity() { return capacity; }
+        public long getPublished() { return published; }
+        public long getDropped() { return dropped; }
+        public long getCoalesced() { return coalesced; }
+        public long getPersisted() { return persisted; }
+        public long getFailed() { return failed; }
+        public long getBatches() { return batches; }
+    }
+}
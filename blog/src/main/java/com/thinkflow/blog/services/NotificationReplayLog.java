@@ -0,0 +1,171 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Notification;
+import com.thinkflow.blog.models.NotificationCounter;
+import com.thinkflow.blog.repositories.NotificationCounterRepository;
+import com.thinkflow.blog.repositories.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user notification sequence numbers and replay of the notifications a client
+ * missed while disconnected.
+ * <p>
+ * Every notification written for a user takes the next number of the user's sequence,
+ * reserved with an atomic increment of the user's counter document. The latest pushed
+ * notifications of recently active users are kept in a small in-memory ring per user.
+ * A reconnecting client reports the last sequence number it saw; when the ring holds
+ * every number after it up to the user's current one, the replay is served from memory,
+ * otherwise from an indexed range query on (userId, seq). Gaps larger than the replay
+ * limit are not replayed at all: the client is told to reload its first page instead.
+ */
+@Component
+public class NotificationReplayLog {
+
+    @Autowired
+    private NotificationCounterRepository notificationCounterRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${notifications.replay.ring-size:50}")
+    private int ringSize;
+
+    @Value("${notifications.replay.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${notifications.replay.max-messages:100}")
+    private int maxReplay;
+
+    private final Map<String, NavigableMap<Long, Notification>> rings = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, NavigableMap<Long, Notification>> eldest) {
+                    return size() > maxUsers;
+                }
+            });
+
+    private final LongAdder ringReplays = new LongAdder();
+    private final LongAdder queryReplays = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    /**
+     * Gives each notification the next sequence number of its user and counts it as
+     * unread, with one counter write per user.
+     * @param notifications New notifications, in the order they should be numbered
+     * @param unreadCounts Filled with each user's unread count after the change, as the
+     *                     counters are written, so a caller can undo a partial batch
+     */
+    public void assignSequences(List<Notification> notifications, Map<String, Long> unreadCounts) {
+        Map<String, List<Notification>> byUser = notifications.stream()
+                .collect(Collectors.groupingBy(Notification::getUserId, LinkedHashMap::new, Collectors.toList()));
+        byUser.forEach((userId, userNotifications) -> {
+            NotificationCounter counter = notificationCounterRepository.addNotifications(userId, userNotifications.size());
+            long seq = counter.getSeq() - userNotifications.size();
+            for (Notification notification : userNotifications) {
+                notification.setSeq(++seq);
+            }
+            unreadCounts.put(userId, counter.getUnread());
+        });
+    }
+
+    /**
+     * Reserves the next sequence number of a user.
+     * @param userId ID of the user
+     * @return The reserved sequence number
+     */
+    public long nextSequence(String userId) {
+        return notificationCounterRepository.allocateSequence(userId, 1);
+    }
+
+    /**
+     * Remembers a notification that was just stored and pushed, for replay.
+     * @param notification Notification with its sequence number
+     */
+    public void record(Notification notification) {
+        NavigableMap<Long, Notification> ring = rings.computeIfAbsent(notification.getUserId(), id -> new TreeMap<>());
+        synchronized (ring) {
+            ring.put(notification.getSeq(), notification);
+            while (ring.size() > ringSize) {
+                ring.pollFirstEntry();
+            }
+        }
+    }
+
+    /**
+     * Finds the notifications of a user numbered after the given sequence number. A client
+     * that has seen no numbered notification, e.g. because its list was empty or predates
+     * sequence numbers, sends 0 and gets every numbered notification or a resync.
+     * @param userId ID of the user
+     * @param afterSeq Last sequence number the client has seen, or 0 if none
+     * @return The missed notifications, oldest first, or null if more were missed than
+     *         the replay limit and the client should reload instead
+     */
+    public List<Notification> missedSince(String userId, long afterSeq) {
+        afterSeq = Math.max(afterSeq, 0);
+        long latest = notificationCounterRepository.findById(userId).map(NotificationCounter::getSeq).orElse(0L);
+        if (latest <= afterSeq) {
+            return List.of();
+        }
+        if (latest - afterSeq > maxReplay) {
+            resyncs.increment();
+            return null;
+        }
+
+        NavigableMap<Long, Notification> ring = rings.get(userId);
+        if (ring != null) {
+            synchronized (ring) {
+                // Numbers may be missing from the ring if another instance pushed them
+                // or a write failed; the range query then decides what exists
+                NavigableMap<Long, Notification> missed = ring.subMap(afterSeq, false, latest, true);
+                if (missed.size() == latest - afterSeq) {
+                    ringReplays.increment();
+                    return new ArrayList<>(missed.values());
+                }
+            }
+        }
+
+        queryReplays.increment();
+        return notificationRepository.findAfterSeq(userId, afterSeq, maxReplay).reversed();
+    }
+
+    /**
+     * @return Counters of how replays were served since startup
+     */
+    public Stats getStats() {
+        return new Stats(rings.size(), ringReplays.sum(), queryReplays.sum(), resyncs.sum());
+    }
+
+    /**
+     * Snapshot of the replay counters
+     */
+    public static class Stats {
+        private final int bufferedUsers;
+        private final long ringReplays;
+        private final long queryReplays;
+        private final long resyncs;
+
+        public Stats(int bufferedUsers, long ringReplays, long queryReplays, long resyncs) {
+            this.bufferedUsers = bufferedUsers;
+            this.ringReplays = ringReplays;
+            this.queryReplays = queryReplays;
+            this.resyncs = resyncs;
+        }
+
+        public int getBufferedUsers() { return bufferedUsers; }
+        public long getRingReplays() { return ringReplays; }
+        public long getQueryReplays() { return queryReplays; }
+        public long getResyncs() { return resyncs; }
+    }
+}
@@ -3,42 +3,80 @@ package com.thinkflow.blog.services;
 import com.thinkflow.blog.models.Notification;
 import com.thinkflow.blog.repositories.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Service creating and reading user notifications. New notifications are handed to the
+ * {@link NotificationPipeline}, which stores and pushes them off the request thread.
+ */
 @Service
 public class NotificationService {
 
+    /** Destination notifications are pushed to; clients subscribe to /user/queue/notifications. */
+    public static final String USER_DESTINATION = "/queue/notifications";
+
+    /** Type of the message telling a client it missed too much to replay and should reload. */
+    public static final String RESYNC_TYPE = "RESYNC";
+
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private NotificationPipeline notificationPipeline;
+
+    @Autowired
+    private UnreadNotificationCounter unreadCounter;
+
+    @Value("${notifications.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${notifications.page-size.max:100}")
+    private int maxPageSize;
 
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private NotificationReplayLog replayLog;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
     /**
      * Sends a follow notification to the followed user.
+     * @param followerId ID of the follower
      * @param followerName Name of the follower
      * @param followedUserId ID of the user being followed
      */
-    public void notifyFollow(String followerName, String followedUserId) {
+    public void notifyFollow(String followerId, String followerName, String followedUserId) {
         String message = followerName + " started following you.";
         Notification notification = new Notification(followedUserId, message, "FOLLOW");
-        notificationRepository.save(notification);
-        messagingTemplate.convertAndSendToUser(followedUserId, "/notifications", notification);
+        notification.setActorId(followerId);
+        notification.getRecentActors().add(followerName);
+        notificationPipeline.publish(notification);
     }
 
     /**
      * Sends a like notification to the post owner.
+     * @param likerId ID of the user who liked the post
      * @param likerName Name of the user who liked the post
      * @param postOwnerId ID of the post owner
+     * @param postId ID of the liked post
      */
-    public void notifyLike(String likerName, String postOwnerId) {
+    public void notifyLike(String likerId, String likerName, String postOwnerId, String postId) {
         String message = likerName + " liked your post.";
         Notification notification = new Notification(postOwnerId, message, "LIKE");
-        notificationRepository.save(notification);
-        messagingTemplate.convertAndSendToUser(postOwnerId, "/notifications", notification);
+        notification.setTargetId(postId);
+        notification.setActorId(likerId);
+        notification.getRecentActors().add(likerName);
+        notificationPipeline.publish(notification);
     }
 
     /**
@@ -50,17 +88,24 @@ public class NotificationService {
     public void notifyComment(String commenterName, String postOwnerId, String comment) {
         String message = commenterName + " commented on your post: " + comment;
         Notification notification = new Notification(postOwnerId, message, "COMMENT");
-        notificationRepository.save(notification);
-        messagingTemplate.convertAndSendToUser(postOwnerId, "/notifications", notification);
+        notificationPipeline.publish(notification);
     }
 
     /**
-     * Fetches all notifications for a user, sorted by creation date (descending).
+     * Fetches one page of a user's notifications, newest first.
      * @param userId ID of the user
-     * @return List of notifications
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, clamped to the configured maximum
+     * @return Page of notifications with the cursor of the next page
      */
-    public List<Notification> getNotifications(String userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public CursorPage<Notification> getNotifications(String userId, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampPageSize(limit, defaultPageSize, maxPageSize);
+        Cursor before = Cursor.decode(cursor);
+        List<Notification> notifications = notificationRepository.findPage(userId,
+                before == null ? null : toDateTime(before.getSortKey()), before == null ? null : before.getId(),
+                pageSize + 1);
+        return CursorPage.of(notifications, pageSize,
+                notification -> new Cursor(toMillis(notification.getCreatedAt()), notification.getId()));
     }
 
     /**
@@ -72,15 +117,60 @@ public class NotificationService {
         return notificationRepository.findByUserIdAndReadFalseOrderByCreatedAtDesc(userId);
     }
 
+    /**
+     * Fetches the number of unread notifications of a user.
+     * @param userId ID of the user
+     * @return Unread count
+     */
+    public long getUnreadCount(String userId) {
+        return unreadCounter.get(userId);
+    }
+
     /**
      * Marks a notification as read.
      * @param notificationId ID of the notification
      */
     public void markAsRead(String notificationId) {
-        Notification notification = getNotificationById(notificationId); // Use the new method
-        if (!notification.isRead()) { // Avoid unnecessary updates
-            notification.setRead(true);
-            notificationRepository.save(notification);
+        Notification unread = notificationRepository.markRead(notificationId);
+        if (unread != null) { // Already read notifications leave the counter alone
+            unreadCounter.adjust(unread.getUserId(), -1);
+        }
+    }
+
+    /**
+     * Marks every unread notification of a user up to a cursor as read in one update.
+     * @param userId ID of the user
+     * @param cursor Cursor of the newest notification to mark, or null to mark everything received so far
+     * @return Number of notifications marked
+     */
+    public long markAllAsRead(String userId, String cursor) {
+        Cursor upTo = Cursor.decode(cursor);
+        long marked = upTo == null
+                ? notificationRepository.markAllRead(userId, LocalDateTime.now(), null)
+                : notificationRepository.markAllRead(userId, toDateTime(upTo.getSortKey()), upTo.getId());
+        unreadCounter.adjust(userId, -marked);
+        return marked;
+    }
+
+    /**
+     * Re-sends the notifications a reconnecting session missed, or tells it to reload
+     * when it missed too many. Only the requesting session receives them.
+     * @param userId ID of the user
+     * @param sessionId ID of the reconnected STOMP session
+     * @param lastSeq Last notification sequence number the session saw
+     */
+    public void replay(String userId, String sessionId, long lastSeq) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        List<Notification> missed = replayLog.missedSince(userId, lastSeq);
+        if (missed == null) {
+            messagingTemplate.convertAndSendToUser(userId, USER_DESTINATION, Map.of("type", RESYNC_TYPE),
+                    headers.getMessageHeaders());
+            return;
+        }
+        for (Notification notification : missed) {
+            messagingTemplate.convertAndSendToUser(userId, USER_DESTINATION, notification, headers.getMessageHeaders());
         }
     }
 
@@ -94,4 +184,13 @@ public class NotificationService {
         return notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new IllegalArgumentException("Notification not found with ID: " + notificationId));
     }
-}
\ No newline at end of file
+
+    // createdAt is a LocalDateTime, stored and compared in the JVM's default zone
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -7,12 +7,18 @@ import com.thinkflow.blog.repositories.LikeRepository;
 import com.thinkflow.blog.repositories.PostRepository;
 import com.thinkflow.blog.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for handling post-related business logic in the blogging platform.
@@ -32,6 +38,36 @@ public class PostService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private LikeCountAggregator likeCountAggregator;
+
+    @Autowired
+    private ViewerLikeCache viewerLikeCache;
+
+    @Autowired
+    private DeletionJobService deletionJobService;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private HotFeedBuffer hotFeedBuffer;
+
+    @Autowired
+    private AuthorLoader authorLoader;
+
+    @Autowired
+    private EngagementStatsPublisher engagementStatsPublisher;
+
+    @Value("${feed.page-size.default:20}")
+    private int defaultFeedPageSize;
+
+    @Value("${feed.page-size.max:50}")
+    private int maxFeedPageSize;
+
+    @Value("${posts.hydrate.max-ids:100}")
+    private int maxHydrateIds;
+
     /**
      * Finds a post by its ID.
      * @param postId ID of the post to find
@@ -53,7 +89,10 @@ public class PostService {
 
         post.setUser(user);
         post.setCreatedAt(new Date());
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        hotFeedBuffer.offer(savedPost);
+        timelineService.onPostCreated(savedPost, user);
+        return savedPost;
     }
 
     /**
@@ -63,16 +102,13 @@ public class PostService {
      * @return Updated post
      */
     public Post updatePost(String postId, Post postUpdates) {
-        return postRepository.findById(postId)
-                .map(existingPost -> {
-                    existingPost.setTitle(postUpdates.getTitle());
-                    existingPost.setContent(postUpdates.getContent());
-                    existingPost.setMediaUrls(postUpdates.getMediaUrls());
-                    existingPost.setFileTypes(postUpdates.getFileTypes());
-                    existingPost.setTags(postUpdates.getTags());
-                    return postRepository.save(existingPost);
-                })
-                .orElseThrow(() -> new RuntimeException("Post not found with ID: " + postId));
+        // Targeted update so concurrent like and comment counter increments are never overwritten
+        Post savedPost = postRepository.updateContent(postId, postUpdates);
+        if (savedPost == null) {
+            throw new RuntimeException("Post not found with ID: " + postId);
+        }
+        hotFeedBuffer.replace(savedPost);
+        return authorLoader.attachToPost(savedPost);
     }
 
     /**
@@ -81,15 +117,25 @@ public class PostService {
      * @return List of posts
      */
     public List<Post> getPostsByUserId(String userId) {
-        return postRepository.findByUserId(userId);
+        return authorLoader.attachToPosts(postRepository.findByUserId(userId));
     }
 
     /**
-     * Retrieves all posts for the feed, sorted by creation date in descending order.
-     * @return List of posts
+     * Retrieves one page of the feed, sorted by creation date in descending order.
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, capped at the configured maximum
+     * @return Page of posts with the cursor of the next page
      */
-    public List<Post> getFeedPosts() {
-        return postRepository.findAllByOrderByCreatedAtDesc();
+    public CursorPage<Post> getFeedPage(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampPageSize(limit, defaultFeedPageSize, maxFeedPageSize);
+        Cursor after = Cursor.decode(cursor);
+        // The first pages are served from the in-memory hot head; older pages go to the repository
+        List<Post> posts = hotFeedBuffer.page(after, pageSize + 1).orElseGet(() -> after == null
+                ? postRepository.findFeedPage(null, null, pageSize + 1)
+                : postRepository.findFeedPage(new Date(after.getSortKey()), after.getId(), pageSize + 1));
+        CursorPage<Post> page = CursorPage.of(posts, pageSize, post -> new Cursor(post.getCreatedAt().getTime(), post.getId()));
+        authorLoader.attachToPosts(page.getItems());
+        return page;
     }
 
     /**
@@ -98,39 +144,70 @@ public class PostService {
      * @return Optional containing the post if found
      */
     public Optional<Post> getPostById(String postId) {
-        return postRepository.findById(postId);
+        return postRepository.findById(postId).map(authorLoader::attachToPost);
     }
 
     /**
      * Toggles like status for a post by the authenticated user.
      * @param postId ID of the post to like/unlike
      * @param userId MongoDB ObjectId of the authenticated user
+     * @param userName Display name of the authenticated user, used in the like notification
      * @return LikeResponse with updated like count and status
      */
-    public LikeResponse togglePostLike(String postId, String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new RuntimeException("Post not found with ID: " + postId));
+    public LikeResponse togglePostLike(String postId, String userId, String userName) {
+        // One conditional write decides the toggle: the delete when the viewer cache knows
+        // the like exists, otherwise the insert, which the unique (postId, user) index turns
+        // into a no-op for an existing like. Either way a toggle normally costs that write
+        // plus the counter update; only a stale guess costs the other write as well
+        boolean unlike = viewerLikeCache.isKnownToLikePost(userId, postId);
+        if (!unlike && likeRepository.insertIfAbsent(postId, userId)) {
+            return liked(postId, userId, userName);
+        }
+        if (likeRepository.removeByPostIdAndUserId(postId, userId)) {
+            viewerLikeCache.onPostLikeChanged(userId, postId, false);
+            Post post = applyLikeDelta(postId, -1);
+            return new LikeResponse(post == null ? 0 : post.getLikeCount(), false);
+        }
+        if (unlike && likeRepository.insertIfAbsent(postId, userId)) {
+            return liked(postId, userId, userName);
+        }
 
-        Optional<Like> existingLike = likeRepository.findByPostIdAndUserId(postId, user.getId());
-        boolean isLiked;
+        // A concurrent toggle reversed the like between our two writes: it removed the
+        // like our insert found, or inserted the one our delete missed
+        boolean liked = unlike;
+        viewerLikeCache.onPostLikeChanged(userId, postId, liked);
+        return new LikeResponse(getLikeCount(postId), liked);
+    }
 
-        if (existingLike.isPresent()) {
-            likeRepository.delete(existingLike.get());
-            isLiked = false;
-        } else {
-            notificationService.notifyLike(user.getName(), post.getUser().getId());
-            Like like = new Like();
-            like.setPostId(postId);
-            like.setUser(user);
-            like.setCreatedAt(new Date());
-            likeRepository.save(like);
-            isLiked = true;
+    private LikeResponse liked(String postId, String userId, String userName) {
+        Post post = applyLikeDelta(postId, 1);
+        if (post == null) {
+            likeRepository.removeByPostIdAndUserId(postId, userId);
+            throw new RuntimeException("Post not found with ID: " + postId);
         }
+        viewerLikeCache.onPostLikeChanged(userId, postId, true);
+        notificationService.notifyLike(userId, userName, AuthorLoader.authorIdOf(post.getUser()), postId);
+        return new LikeResponse(post.getLikeCount(), true);
+    }
 
-        long likeCount = likeRepository.countByPostId(postId);
-        return new LikeResponse(likeCount, isLiked);
+    /**
+     * Applies a like count change, either directly on the post document or through
+     * the write-behind aggregator when it is enabled.
+     * @return The post with its owner and current like count, or null if it does not exist
+     */
+    private Post applyLikeDelta(String postId, long delta) {
+        if (!likeCountAggregator.isEnabled()) {
+            Post post = postRepository.incrementLikeCount(postId, delta);
+            if (post != null) {
+                engagementStatsPublisher.postChanged(postId);
+            }
+            return post;
+        }
+        Post post = likeCountAggregator.add(postId, delta);
+        if (post != null) {
+            engagementStatsPublisher.postChanged(postId);
+        }
+        return post;
     }
 
     /**
@@ -139,7 +216,18 @@ public class PostService {
      * @return Number of likes
      */
     public long getLikeCount(String postId) {
-        return likeRepository.countByPostId(postId);
+        List<Post> counters = postRepository.findCounters(List.of(postId));
+        return counters.isEmpty() ? 0 : likeCountAggregator.currentCount(postId, counters.get(0).getLikeCount());
+    }
+
+    /**
+     * Retrieves the number of comments for a post.
+     * @param postId ID of the post
+     * @return Number of comments
+     */
+    public long getCommentCount(String postId) {
+        List<Post> counters = postRepository.findCounters(List.of(postId));
+        return counters.isEmpty() ? 0 : counters.get(0).getCommentCount();
     }
 
     /**
@@ -148,7 +236,7 @@ public class PostService {
      * @return List of likes
      */
     public List<Like> getLikesForPost(String postId) {
-        return likeRepository.findByPostId(postId);
+        return authorLoader.attachToLikes(likeRepository.findByPostId(postId));
     }
 
     /**
@@ -158,27 +246,53 @@ public class PostService {
      * @return True if the user has liked the post, false otherwise
      */
     public boolean hasUserLikedPost(String postId, String userId) {
-        Optional<User> userOptional = userRepository.findById(userId);
-        return userOptional.isPresent() &&
-                likeRepository.findByPostIdAndUserId(postId, userOptional.get().getId()).isPresent();
+        return viewerLikeCache.hasLikedPost(userId, postId);
     }
 
     /**
-     * Retrieves posts from users the authenticated user is following.
-     * @param userId MongoDB ObjectId of the authenticated user
-     * @return List of posts from followed users
+     * Retrieves like count, comment count and the viewer's like state for several posts
+     * with a fixed number of queries, regardless of how many posts are requested.
+     * @param postIds IDs of the posts to hydrate
+     * @param viewerId MongoDB ObjectId of the viewing user, or null for anonymous viewers
+     * @return Stats for each distinct requested post, in request order
+     * @throws IllegalArgumentException if more posts are requested than allowed
      */
-    public List<Post> getFollowingPosts(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+    public List<PostStats> hydratePosts(List<String> postIds, String viewerId) {
+        Set<String> ids = new LinkedHashSet<>(postIds);
+        if (ids.size() > maxHydrateIds) {
+            throw new IllegalArgumentException("At most " + maxHydrateIds + " posts can be hydrated at once");
+        }
+        List<PostStats> stats = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return stats;
+        }
+
+        Map<String, Post> counters = postRepository.findCounters(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        Set<String> likedPostIds = viewerId == null ? Set.of() : viewerLikeCache.likedPostsAmong(viewerId, ids);
 
-        List<String> followingUserIds = user.getFollowing();
-        if (followingUserIds.isEmpty()) {
-            return new ArrayList<>();
+        for (String postId : ids) {
+            Post post = counters.get(postId);
+            stats.add(new PostStats(postId,
+                    post == null ? 0 : likeCountAggregator.currentCount(postId, post.getLikeCount()),
+                    post == null ? 0 : post.getCommentCount(),
+                    likedPostIds.contains(postId)));
         }
+        return stats;
+    }
 
-        List<User> followingUsers = userRepository.findByIdIn(followingUserIds);
-        return postRepository.findByUserIn(followingUsers);
+    /**
+     * Retrieves one page of posts from users the authenticated user is following,
+     * read from the user's materialized timeline.
+     * @param userId MongoDB ObjectId of the authenticated user
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size
+     * @return Page of posts from followed users, newest first
+     */
+    public CursorPage<Post> getFollowingPosts(String userId, String cursor, Integer limit) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
+        return timelineService.getTimelinePage(user, cursor, limit);
     }
 
     /**
@@ -188,7 +302,12 @@ public class PostService {
     public void deletePost(String postId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
+        // The job is saved first and deletes the post itself too, so a crash cannot orphan
+        // the likes, comments, timeline entries and saved references it removes in the background
+        deletionJobService.enqueuePostDeletion(postId);
         postRepository.delete(post);
+        hotFeedBuffer.remove(postId);
+        timelineService.removePost(postId, AuthorLoader.authorIdOf(post.getUser()));
     }
 
     /**
@@ -211,4 +330,37 @@ public class PostService {
             return liked;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Data Transfer Object for the engagement state of a post as seen by a viewer.
+     */
+    public static class PostStats {
+        private final String postId;
+        private final long likeCount;
+        private final long commentCount;
+        private final boolean liked;
+
+        public PostStats(String postId, long likeCount, long commentCount, boolean liked) {
+            this.postId = postId;
+            this.likeCount = likeCount;
+            this.commentCount = commentCount;
+            this.liked = liked;
+        }
+
+        public String getPostId() {
+            return postId;
+        }
+
+        public long getLikeCount() {
+            return likeCount;
+        }
+
+        public long getCommentCount() {
+            return commentCount;
+        }
+
+        public boolean isLiked() {
+            return liked;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Post;
+import com.thinkflow.blog.models.TimelineEntry;
+import com.thinkflow.blog.models.User;
+import com.thinkflow.blog.repositories.FollowRepository;
+import com.thinkflow.blog.repositories.PostRepository;
+import com.thinkflow.blog.repositories.TimelineRepository;
+import com.thinkflow.blog.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service maintaining the home timeline of each user with a hybrid push/pull model.
+ * Posts of regular authors are pushed into their followers' materialized timelines when created.
+ * Posts of authors with at least the configured number of followers are not fanned out; they
+ * are pulled from {@link AuthorPostsCache} at read time and k-way merged with the pushed entries.
+ */
+@Service
+public class TimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+
+    @Autowired
+    private TimelineRepository timelineRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private AuthorPostsCache authorPostsCache;
+
+    @Autowired
+    private AuthorLoader authorLoader;
+
+    /** Orders entries newest first, breaking ties on the post ID like the timeline index does. */
+    private static final Comparator<TimelineEntry> NEWEST_FIRST = Comparator
+            .comparing(TimelineEntry::getCreatedAt)
+            .thenComparing(TimelineEntry::getPostId)
+            .reversed();
+
+    @Value("${timeline.fanout.follower-threshold:10000}")
+    private int fanOutFollowerThreshold;
+
+    @Value("${timeline.fanout.batch-size:1000}")
+    private int fanOutBatchSize;
+
+    @Value("${timeline.backfill.size:200}")
+    private int backfillSize;
+
+    @Value("${timeline.high-follower-authors.refresh-ms:60000}")
+    private long highFollowerRefreshMillis;
+
+    /** IDs of every author at or above the fan-out threshold, reloaded every refresh interval. */
+    private volatile HighFollowerAuthors highFollowerAuthors;
+
+    @Value("${feed.page-size.default:20}")
+    private int defaultPageSize;
+
+    @Value("${feed.page-size.max:50}")
+    private int maxPageSize;
+
+    /**
+     * Distributes a newly created post. Authors below the follower threshold get their post
+     * pushed to every follower; high-follower authors only update the recent-posts cache.
+     * @param post Newly created post
+     * @param author Author of the post
+     */
+    public void onPostCreated(Post post, User author) {
+        if (author.getFollowerCount() >= fanOutFollowerThreshold) {
+            authorPostsCache.addPost(post);
+            addHighFollowerAuthor(author.getId());
+        } else {
+            fanOut(post, followRepository.findFollowerIds(author.getId()));
+        }
+    }
+
+    /**
+     * Pushes a new post into the timelines of the given followers using batched bulk writes.
+     * @param post Newly created post
+     * @param followerIds IDs of the users following the post's author
+     */
+    public void fanOut(Post post, List<String> followerIds) {
+        String authorId = AuthorLoader.authorIdOf(post.getUser());
+        List<TimelineEntry> batch = new ArrayList<>(Math.min(followerIds.size(), fanOutBatchSize));
+        for (String followerId : followerIds) {
+            batch.add(new TimelineEntry(followerId, post.getId(), authorId, post.getCreatedAt()));
+            if (batch.size() == fanOutBatchSize) {
+                timelineRepository.upsertAll(batch);
+                batch = new ArrayList<>(fanOutBatchSize);
+            }
+        }
+        timelineRepository.upsertAll(batch);
+        logger.info("Fanned out post {} to {} timelines", post.getId(), followerIds.size());
+    }
+
+    /**
+     * Copies the followee's recent posts into the follower's timeline.
+     * @param followerId ID of the user who followed
+     * @param followeeId ID of the user who was followed
+     */
+    public void onFollow(String followerId, String followeeId) {
+        List<Post> recentPosts = postRepository.findRecentByAuthors(List.of(followeeId), backfillSize);
+        timelineRepository.upsertAll(toEntries(followerId, recentPosts));
+    }
+
+    /**
+     * Removes the followee's posts from the follower's timeline.
+     * @param followerId ID of the user who unfollowed
+     * @param followeeId ID of the user who was unfollowed
+     */
+    public void onUnfollow(String followerId, String followeeId) {
+        timelineRepository.deleteByOwnerIdAndAuthorId(followerId, followeeId);
+    }
+
+    /**
+     * Removes a deleted post from its author's cached posts. The post's timeline entries
+     * are removed in batches by its deletion job; until then, timeline reads skip them
+     * because the post no longer loads.
+     * @param postId ID of the deleted post
+     * @param authorId ID of the post's author
+     */
+    public void removePost(String postId, String authorId) {
+        authorPostsCache.removePost(authorId, postId);
+    }
+
+    /**
+     * Drops a deleted user's cached posts. Their timeline and their entries in other
+     * timelines are removed in batches by the account's deletion job.
+     * @param userId ID of the deleted user
+     */
+    public void removeUser(String userId) {
+        authorPostsCache.evict(userId);
+    }
+
+    /**
+     * Reads one page of a user's home timeline.
+     * @param user User whose timeline to read
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, capped at the configured maximum
+     * @return Page of posts from followed users, newest first
+     */
+    public CursorPage<Post> getTimelinePage(User user, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampPageSize(limit, defaultPageSize, maxPageSize);
+        Cursor after = Cursor.decode(cursor);
+        List<TimelineEntry> entries = findEntries(user.getId(), after, pageSize + 1);
+        if (user.getFollowingCount() == 0) {
+            CursorPage<TimelineEntry> entryPage = CursorPage.of(entries, pageSize,
+                    entry -> new Cursor(entry.getCreatedAt().getTime(), entry.getPostId()));
+            return new CursorPage<>(loadPosts(entryPage.getItems()), entryPage.getNextCursor());
+        }
+
+        // Timelines of users who followed people before fan-out existed are built on first read
+        if (entries.isEmpty() && after == null && !timelineRepository.existsByOwnerId(user.getId())) {
+            rebuild(user.getId(), followRepository.findFolloweeIds(user.getId()));
+            entries = findEntries(user.getId(), null, pageSize + 1);
+        }
+
+        // Pull the posts of followed high-follower authors and merge them with the pushed entries.
+        // Only the few high-follower authors are checked against the reader's follows, so the
+        // cost does not grow with the number of people the reader follows
+        List<List<TimelineEntry>> sources = new ArrayList<>();
+        sources.add(entries);
+        for (String authorId : followRepository.findFollowedAmong(user.getId(), highFollowerAuthorIds())) {
+            sources.add(authorPostsCache.getPostsBefore(authorId, after, pageSize + 1));
+        }
+        List<TimelineEntry> merged = sources.size() == 1 ? entries : mergeNewestFirst(sources, pageSize + 1);
+
+        CursorPage<TimelineEntry> entryPage = CursorPage.of(merged, pageSize,
+                entry -> new Cursor(entry.getCreatedAt().getTime(), entry.getPostId()));
+        return new CursorPage<>(loadPosts(entryPage.getItems()), entryPage.getNextCursor());
+    }
+
+    /**
+     * Returns the IDs of all authors at or above the fan-out threshold, reloading them
+     * with one indexed query once the cached set is older than the refresh interval.
+     * An author who crossed the threshold is added as soon as they post without fan-out,
+     * and one who dropped below it stays until the reload; the merge drops duplicates.
+     */
+    private Set<String> highFollowerAuthorIds() {
+        HighFollowerAuthors current = highFollowerAuthors;
+        if (current == null || System.currentTimeMillis() - current.loadedAt() >= highFollowerRefreshMillis) {
+            current = new HighFollowerAuthors(Set.copyOf(userRepository.findIdsWithMinFollowers(fanOutFollowerThreshold)),
+                    System.currentTimeMillis());
+            highFollowerAuthors = current;
+        }
+        return current.ids();
+    }
+
+    /**
+     * Rebuilds a user's timeline from the recent posts of everyone they follow.
+     * @param userId ID of the user whose timeline to rebuild
+     * @param following IDs of the users they follow
+     */
+    public void rebuild(String userId, List<String> following) {
+        List<Post> recentPosts = postRepository.findRecentByAuthors(following, backfillSize);
+        timelineRepository.upsertAll(toEntries(userId, recentPosts));
+        logger.info("Rebuilt timeline for user {} with {} posts", userId, recentPosts.size());
+    }
+
+    /**
+     * K-way merges sources that are each sorted newest first, dropping duplicate posts
+     * (a post can be both pushed and cached if its author crossed the threshold).
+     * @param sources Entry lists sorted newest first
+     * @param limit Maximum number of entries to return
+     * @return Merged entries, newest first
+     */
+    static List<TimelineEntry> mergeNewestFirst(List<List<TimelineEntry>> sources, int limit) {
+        PriorityQueue<SourceCursor> heads = new PriorityQueue<>(
+                (a, b) -> NEWEST_FIRST.compare(a.peek(), b.peek()));
+        for (List<TimelineEntry> source : sources) {
+            if (!source.isEmpty()) {
+                heads.add(new SourceCursor(source));
+            }
+        }
+
+        List<TimelineEntry> merged = new ArrayList<>(limit);
+        Set<String> seenPostIds = new HashSet<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            SourceCursor head = heads.poll();
+            TimelineEntry entry = head.next();
+            if (seenPostIds.add(entry.getPostId())) {
+                merged.add(entry);
+            }
+            if (head.hasNext()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private List<TimelineEntry> findEntries(String ownerId, Cursor after, int limit) {
+        return after == null
+                ? timelineRepository.findPage(ownerId, null, null, limit)
+                : timelineRepository.findPage(ownerId, new Date(after.getSortKey()), after.getId(), limit);
+    }
+
+    private List<TimelineEntry> toEntries(String ownerId, List<Post> posts) {
+        return posts.stream()
+                .map(post -> new TimelineEntry(ownerId, post.getId(), AuthorLoader.authorIdOf(post.getUser()), post.getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Loads the posts behind timeline entries with one query, keeping the timeline order.
+     * Entries whose post no longer exists are skipped.
+     */
+    private List<Post> loadPosts(List<TimelineEntry> entries) {
+        if (entries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> postIds = entries.stream().map(TimelineEntry::getPostId).collect(Collectors.toList());
+        Map<String, Post> postsById = postRepository.findByIdIn(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<Post> posts = new ArrayList<>(entries.size());
+        for (String postId : postIds) {
+            Post post = postsById.get(postId);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return authorLoader.attachToPosts(posts);
+    }
+
+    private synchronized void addHighFollowerAuthor(String authorId) {
+        HighFollowerAuthors current = highFollowerAuthors;
+        if (current != null && !current.ids().contains(authorId)) {
+            Set<String> ids = new HashSet<>(current.ids());
+            ids.add(authorId);
+            highFollowerAuthors = new HighFollowerAuthors(Set.copyOf(ids), current.loadedAt());
+        }
+    }
+
+    private record HighFollowerAuthors(Set<String> ids, long loadedAt) {}
+
+    /**
+     * Read position within one sorted merge source.
+     */
+    private static class SourceCursor {
+        private final List<TimelineEntry> entries;
+        private int position;
+
+        SourceCursor(List<TimelineEntry> entries) {
+            this.entries = entries;
+        }
+
+        TimelineEntry peek() {
+            return entries.get(position);
+        }
+
+        TimelineEntry next() {
+            return entries.get(position++);
+        }
+
+        boolean hasNext() {
+            return position < entries.size();
+        }
+    }
+}
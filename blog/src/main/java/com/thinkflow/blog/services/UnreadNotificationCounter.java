@@ -0,0 +1,116 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.NotificationCounter;
+import com.thinkflow.blog.repositories.NotificationCounterRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user unread notification counts. The count lives in a counter document that
+ * is changed with atomic increments whenever notifications are created or read, and
+ * the latest value of recently active users is cached in memory, so drawing a badge
+ * never reads the notifications themselves. Every change is also pushed to the user's
+ * notifications destination.
+ */
+@Component
+public class UnreadNotificationCounter {
+
+    /** Type of the pushed count message, distinguishing it from notifications on the same destination. */
+    public static final String MESSAGE_TYPE = "UNREAD_COUNT";
+
+    @Autowired
+    private NotificationCounterRepository notificationCounterRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${notifications.unread-cache.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${notifications.unread-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private final Map<String, CachedCount> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+                    return size() > maxUsers;
+                }
+            });
+
+    /**
+     * Seeds the counters from the stored notifications the first time the application
+     * runs with them; from then on they are only changed incrementally.
+     */
+    @PostConstruct
+    public void seedCounters() {
+        notificationCounterRepository.seedFromNotifications();
+    }
+
+    /**
+     * @param userId ID of the user
+     * @return Number of unread notifications of the user
+     */
+    public long get(String userId) {
+        CachedCount cached = cache.get(userId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMillis) {
+            return cached.count;
+        }
+        long count = notificationCounterRepository.findById(userId).map(NotificationCounter::getUnread).orElse(0L);
+        cache.put(userId, new CachedCount(count, System.currentTimeMillis()));
+        return count;
+    }
+
+    /**
+     * Applies a change to a user's unread count and pushes the new count to the user.
+     * @param userId ID of the user
+     * @param delta Number of notifications created, or negative the number read
+     */
+    public void adjust(String userId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        // The cached value is always one returned by the atomic increment; entries
+        // expire, so a rare out-of-order put between two updates heals itself
+        publish(userId, notificationCounterRepository.increment(userId, delta));
+    }
+
+    /**
+     * Caches and pushes a user's unread count that was already changed in the counter
+     * document, e.g. together with the user's notification sequence.
+     * @param userId ID of the user
+     * @param count Unread count returned by the write
+     */
+    public void publish(String userId, long count) {
+        cache.put(userId, new CachedCount(count, System.currentTimeMillis()));
+        messagingTemplate.convertAndSendToUser(userId, NotificationService.USER_DESTINATION, new UnreadCountMessage(count));
+    }
+
+    private record CachedCount(long count, long loadedAt) {}
+
+    /**
+     * Message pushed over STOMP when a user's unread count changes
+     */
+    public static class UnreadCountMessage {
+        private final long unreadCount;
+
+        public UnreadCountMessage(long unreadCount) {
+            this.unreadCount = unreadCount;
+        }
+
+        public String getType() {
+            return MESSAGE_TYPE;
+        }
+
+        public long getUnreadCount() {
+            return unreadCount;
+        }
+    }
+}
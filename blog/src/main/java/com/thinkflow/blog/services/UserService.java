@@ -1,12 +1,14 @@
 package com.thinkflow.blog.services;
 
+import com.thinkflow.blog.models.DeletionJob;
+import com.thinkflow.blog.models.Follow;
 import com.thinkflow.blog.models.Post;
 import com.thinkflow.blog.models.User;
-import com.thinkflow.blog.repositories.CommentRepository;
-import com.thinkflow.blog.repositories.LikeRepository;
+import com.thinkflow.blog.repositories.FollowRepository;
 import com.thinkflow.blog.repositories.PostRepository;
 import com.thinkflow.blog.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +16,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -29,13 +32,31 @@ public class UserService {
     private PostRepository postRepository;
 
     @Autowired
-    private LikeRepository likeRepository;
+    private FollowRepository followRepository;
 
     @Autowired
-    private CommentRepository commentRepository;
+    private NotificationService notificationService;
 
     @Autowired
-    private NotificationService notificationService;
+    private TimelineService timelineService;
+
+    @Autowired
+    private ViewerLikeCache viewerLikeCache;
+
+    @Autowired
+    private HotFeedBuffer hotFeedBuffer;
+
+    @Autowired
+    private DeletionJobService deletionJobService;
+
+    @Autowired
+    private AuthorLoader authorLoader;
+
+    @Value("${users.follows.page-size.default:20}")
+    private int defaultFollowPageSize;
+
+    @Value("${users.follows.page-size.max:100}")
+    private int maxFollowPageSize;
 
     /**
      * Saves a user entity to the database.
@@ -47,83 +68,117 @@ public class UserService {
     }
 
     /**
-     * Deletes a user account, their posts, likes, comments, and all associated references.
+     * Deletes a user account. The user document and in-memory caches are cleared right
+     * away; their posts, likes, comments, follows, timelines and notifications are removed
+     * by a background deletion job that only touches affected documents.
      * @param userId ID of the user to delete
+     * @return The deletion job cleaning up after the account
      */
-    public void deleteUser(String userId) {
+    public DeletionJob deleteUser(String userId) {
         User user = getUserById(userId);
+        // The job is saved first and deletes the user itself too, so a crash cannot orphan
+        // the posts, likes, comments and follows it removes in the background
+        DeletionJob job = deletionJobService.enqueueUserDeletion(userId);
+        userRepository.delete(user);
 
-        // Step 1: Fetch user's post IDs for cleanup
-        List<String> userPostIds = postRepository.findByUserId(userId).stream()
-                .map(Post::getId)
-                .collect(Collectors.toList());
-
-        // Step 2: Delete all posts created by the user
-        postRepository.deleteByUserId(userId);
-
-        // Step 3: Delete all likes made by the user
-        likeRepository.deleteByUserId(userId);
-
-        // Step 4: Delete all likes on the user's posts
-        likeRepository.deleteByPostIdIn(userPostIds);
-
-        // Step 5: Delete all comments made by the user
-        commentRepository.deleteByUserId(userId);
-
-        // Step 6: Delete all comments on the user's posts
-        commentRepository.deleteByPostIdIn(userPostIds);
-
-        // Step 7: Clean up references in other users' data
-        List<User> allUsers = userRepository.findAll();
-        for (User otherUser : allUsers) {
-            if (otherUser.getFollowers().contains(userId)) {
-                otherUser.getFollowers().remove(userId);
-            }
-            if (otherUser.getFollowing().contains(userId)) {
-                otherUser.getFollowing().remove(userId);
-            }
-            for (String postId : userPostIds) {
-                if (otherUser.getSavedPosts().contains(postId)) {
-                    otherUser.getSavedPosts().remove(postId);
-                }
-            }
-            userRepository.save(otherUser);
-        }
+        timelineService.removeUser(userId);
+        hotFeedBuffer.removeAuthor(userId);
+        viewerLikeCache.evict(userId);
 
-        // Step 8: Delete the user
-        userRepository.delete(user);
+        return job;
     }
 
     /**
-     * Allows a user to follow another user and sends a notification.
+     * Allows a user to follow another user and sends a notification. Following someone
+     * already followed changes nothing.
      * @param followerId ID of the user who wants to follow
      * @param followeeId ID of the user to be followed
      */
     public void followUser(String followerId, String followeeId) {
-        User follower = getUserById(followerId);
-        User followee = getUserById(followeeId);
-
-        notificationService.notifyFollow(follower.getName(), followeeId);
+        List<User> users = userRepository.findSummariesByIds(List.of(followerId, followeeId));
+        User follower = users.stream().filter(user -> user.getId().equals(followerId)).findFirst()
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + followerId));
+        if (users.stream().noneMatch(user -> user.getId().equals(followeeId))) {
+            throw new RuntimeException("User not found with ID: " + followeeId);
+        }
 
-        follower.getFollowing().add(followeeId);
-        followee.getFollowers().add(followerId);
+        // The unique (followerId, followeeId) index decides, so concurrent follows count once
+        if (!followRepository.insertIfAbsent(followerId, followeeId)) {
+            return;
+        }
+        userRepository.incrementFollowCounts(followerId, followeeId, 1);
 
-        userRepository.saveAll(Arrays.asList(follower, followee));
+        notificationService.notifyFollow(followerId, follower.getName(), followeeId);
+        timelineService.onFollow(followerId, followeeId);
     }
 
     /**
-     * Allows a user to unfollow another user.
+     * Allows a user to unfollow another user. Unfollowing someone not followed changes nothing.
      * @param followerId ID of the user who wants to unfollow
      * @param followeeId ID of the user to be unfollowed
      */
     public void unfollowUser(String followerId, String followeeId) {
-        User follower = getUserById(followerId);
-        User followee = getUserById(followeeId);
+        if (!followRepository.remove(followerId, followeeId)) {
+            return;
+        }
+        userRepository.incrementFollowCounts(followerId, followeeId, -1);
+        timelineService.onUnfollow(followerId, followeeId);
+    }
 
-        follower.getFollowing().remove(followeeId);
-        followee.getFollowers().remove(followerId);
+    /**
+     * Checks whether one user follows another.
+     * @param followerId ID of the possible follower
+     * @param followeeId ID of the possibly followed user
+     * @return True if followerId follows followeeId
+     */
+    public boolean isFollowing(String followerId, String followeeId) {
+        return followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId);
+    }
 
-        userRepository.saveAll(Arrays.asList(follower, followee));
+    /**
+     * Retrieves one page of a user's followers, most recent first.
+     * @param userId ID of the user
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, clamped to the configured maximum
+     * @return Page of followers with the cursor of the next page
+     */
+    public CursorPage<User> getFollowers(String userId, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampPageSize(limit, defaultFollowPageSize, maxFollowPageSize);
+        Cursor before = Cursor.decode(cursor);
+        List<Follow> edges = followRepository.findFollowersPage(userId,
+                before == null ? null : before.getSortKey(), before == null ? null : before.getId(), pageSize + 1);
+        return toUserPage(edges, pageSize, Follow::getFollowerId);
+    }
+
+    /**
+     * Retrieves one page of the users someone follows, most recent first.
+     * @param userId ID of the user
+     * @param cursor Opaque cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, clamped to the configured maximum
+     * @return Page of followed users with the cursor of the next page
+     */
+    public CursorPage<User> getFollowing(String userId, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampPageSize(limit, defaultFollowPageSize, maxFollowPageSize);
+        Cursor before = Cursor.decode(cursor);
+        List<Follow> edges = followRepository.findFollowingPage(userId,
+                before == null ? null : before.getSortKey(), before == null ? null : before.getId(), pageSize + 1);
+        return toUserPage(edges, pageSize, Follow::getFolloweeId);
+    }
+
+    /**
+     * Turns a page of follow edges into the users on the given side of them, in edge order.
+     * Users deleted since are skipped until their deletion job removes the edges.
+     */
+    private CursorPage<User> toUserPage(List<Follow> edges, int pageSize, Function<Follow, String> userIdOf) {
+        CursorPage<Follow> edgePage = CursorPage.of(edges, pageSize,
+                edge -> new Cursor(edge.getCreatedAt().getTime(), edge.getId()));
+        Map<String, User> users = userRepository.findProfilesByIds(edgePage.getItems().stream().map(userIdOf).toList())
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> page = edgePage.getItems().stream()
+                .map(edge -> users.get(userIdOf.apply(edge)))
+                .filter(Objects::nonNull)
+                .toList();
+        return new CursorPage<>(page, edgePage.getNextCursor());
     }
 
     /**
@@ -141,10 +196,8 @@ public class UserService {
      * @param postId ID of the post to save
      */
     public void savePost(String userId, String postId) {
-        User user = getUserById(userId);
-        if (!user.getSavedPosts().contains(postId)) {
-            user.getSavedPosts().add(postId);
-            userRepository.save(user);
+        if (!userRepository.addSavedPost(userId, postId)) {
+            throw new RuntimeException("User not found with ID: " + userId);
         }
     }
 
@@ -154,9 +207,9 @@ public class UserService {
      * @param postId ID of the post to unsave
      */
     public void unsavePost(String userId, String postId) {
-        User user = getUserById(userId);
-        user.getSavedPosts().remove(postId);
-        userRepository.save(user);
+        if (!userRepository.removeSavedPost(userId, postId)) {
+            throw new RuntimeException("User not found with ID: " + userId);
+        }
     }
 
     /**
@@ -176,7 +229,7 @@ public class UserService {
      */
     public List<Post> getSavedPostsDetails(String userId) {
         User user = getUserById(userId);
-        return postRepository.findByIdIn(user.getSavedPosts());
+        return authorLoader.attachToPosts(postRepository.findByIdIn(user.getSavedPosts()));
     }
 
     /**
@@ -185,11 +238,10 @@ public class UserService {
      * @return List of friends
      */
     public List<User> getUserFriends(String userId) {
-        User user = getUserById(userId);
-        Set<String> friendIds = new HashSet<>(user.getFollowing());
-        friendIds.addAll(user.getFollowers());
+        Set<String> friendIds = new HashSet<>(followRepository.findFolloweeIds(userId));
+        friendIds.addAll(followRepository.findFollowerIds(userId));
         friendIds.remove(userId);
-        return userRepository.findAllById(friendIds);
+        return userRepository.findProfilesByIds(friendIds);
     }
 
     /**
@@ -199,20 +251,20 @@ public class UserService {
      * @return List of mutual friends
      */
     public List<User> getMutualFriends(String userId1, String userId2) {
-        User user1 = getUserById(userId1);
-        User user2 = getUserById(userId2);
+        List<String> following1 = followRepository.findFolloweeIds(userId1);
+        List<String> following2 = followRepository.findFolloweeIds(userId2);
 
-        Set<String> mutualFriendIds = new HashSet<>(user1.getFollowing());
-        mutualFriendIds.retainAll(user2.getFollowing());
+        Set<String> mutualFriendIds = new HashSet<>(following1);
+        mutualFriendIds.retainAll(following2);
 
-        if (user1.getFollowing().contains(userId2)) {
+        if (following1.contains(userId2)) {
             mutualFriendIds.add(userId2);
         }
-        if (user2.getFollowing().contains(userId1)) {
+        if (following2.contains(userId1)) {
             mutualFriendIds.add(userId1);
         }
 
-        return userRepository.findAllById(mutualFriendIds);
+        return userRepository.findProfilesByIds(mutualFriendIds);
     }
 
     /**
@@ -223,9 +275,7 @@ public class UserService {
      * @return Page of users not followed
      */
     public Page<User> getUsersNotFollowing(String currentUserId, int page, int size) {
-        User currentUser = getUserById(currentUserId);
-        List<String> followingIds = currentUser.getFollowing() != null ?
-                new ArrayList<>(currentUser.getFollowing()) : new ArrayList<>();
+        List<String> followingIds = new ArrayList<>(followRepository.findFolloweeIds(currentUserId));
         followingIds.add(currentUserId); // Exclude self
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
@@ -0,0 +1,251 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.CommentLike;
+import com.thinkflow.blog.models.Like;
+import com.thinkflow.blog.repositories.CommentLikeRepository;
+import com.thinkflow.blog.repositories.LikeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * LRU cache of the post and comment IDs each viewer has liked, so has-liked
+ * checks for a page of items are answered from memory. A viewer's sets are
+ * loaded on first use with two projected queries and then kept current by
+ * the like toggles. Entries expire after a TTL to pick up likes made through
+ * other instances. Each set holds at most a configured number of IDs; for a
+ * viewer who has liked more, IDs missing from the set are checked against the
+ * database.
+ */
+@Component
+public class ViewerLikeCache {
+
+    @Autowired
+    private LikeRepository likeRepository;
+
+    @Autowired
+    private CommentLikeRepository commentLikeRepository;
+
+    @Value("${likes.viewer-cache.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${likes.viewer-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    @Value("${likes.viewer-cache.max-ids-per-user:5000}")
+    private int maxIdsPerUser;
+
+    private final Map<String, LikedSets> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, LikedSets> eldest) {
+                    return size() > maxUsers;
+                }
+            });
+
+    /**
+     * @param userId MongoDB ObjectId of the viewer
+     * @param postId ID of the post
+     * @return true if the viewer has liked the post
+     */
+    public boolean hasLikedPost(String userId, String postId) {
+        return likedPostsAmong(userId, List.of(postId)).contains(postId);
+    }
+
+    /**
+     * Answers from memory only, without loading the viewer's sets or querying.
+     * @param userId MongoDB ObjectId of the viewer
+     * @param postId ID of the post
+     * @return true if the viewer's cached set holds the post
+     */
+    public boolean isKnownToLikePost(String userId, String postId) {
+        return isKnown(userId, sets -> sets.posts, postId);
+    }
+
+    /**
+     * @param userId MongoDB ObjectId of the viewer
+     * @param postIds IDs of the posts to check
+     * @return The subset of postIds the viewer has liked
+     */
+    public Set<String> likedPostsAmong(String userId, Collection<String> postIds) {
+        LikedSets sets = get(userId);
+        return likedAmong(sets, sets.posts, postIds, unknown ->
+                likeRepository.findPostIdsByUserIdAndPostIdIn(userId, unknown).stream().map(Like::getPostId));
+    }
+
+    /**
+     * @param userId MongoDB ObjectId of the viewer
+     * @param commentId ID of the comment
+     * @return true if the viewer has liked the comment
+     */
+    public boolean hasLikedComment(String userId, String commentId) {
+        return likedCommentsAmong(userId, List.of(commentId)).contains(commentId);
+    }
+
+    /**
+     * Answers from memory only, without loading the viewer's sets or querying.
+     * @param userId MongoDB ObjectId of the viewer
+     * @param commentId ID of the comment
+     * @return true if the viewer's cached set holds the comment
+     */
+    public boolean isKnownToLikeComment(String userId, String commentId) {
+        return isKnown(userId, sets -> sets.comments, commentId);
+    }
+
+    /**
+     * @param userId MongoDB ObjectId of the viewer
+     * @param commentIds IDs of the comments to check
+     * @return The subset of commentIds the viewer has liked
+     */
+    public Set<String> likedCommentsAmong(String userId, Collection<String> commentIds) {
+        LikedSets sets = get(userId);
+        return likedAmong(sets, sets.comments, commentIds, unknown ->
+                commentLikeRepository.findCommentIdsByUserIdAndCommentIdIn(userId, unknown).stream()
+                        .map(CommentLike::getCommentId));
+    }
+
+    /**
+     * Records a post like toggle after it has been written.
+     * @param userId MongoDB ObjectId of the viewer
+     * @param postId ID of the post
+     * @param liked New like state
+     */
+    public void onPostLikeChanged(String userId, String postId, boolean liked) {
+        update(userId, sets -> sets.posts.apply(postId, liked, maxIdsPerUser));
+    }
+
+    /**
+     * Records a comment like toggle after it has been written.
+     * @param userId MongoDB ObjectId of the viewer
+     * @param commentId ID of the comment
+     * @param liked New like state
+     */
+    public void onCommentLikeChanged(String userId, String commentId, boolean liked) {
+        update(userId, sets -> sets.comments.apply(commentId, liked, maxIdsPerUser));
+    }
+
+    /**
+     * Drops a viewer's cached sets.
+     * @param userId MongoDB ObjectId of the viewer
+     */
+    public void evict(String userId) {
+        cache.remove(userId);
+    }
+
+    private LikedSets get(String userId) {
+        LikedSets sets;
+        synchronized (cache) {
+            sets = cache.get(userId);
+            if (sets == null || sets.isExpired(ttlMillis)) {
+                sets = new LikedSets();
+                cache.put(userId, sets);
+            }
+        }
+        // Loading under the entry's lock makes concurrent toggles wait for it, so
+        // their updates are applied on top of the loaded sets rather than lost
+        synchronized (sets) {
+            if (!sets.loaded) {
+                // One ID more than the cap tells whether the viewer has liked more than fits
+                Pageable limit = PageRequest.of(0, maxIdsPerUser + 1);
+                sets.posts.load(likeRepository.findPostIdsByUserId(userId, limit).stream()
+                        .map(Like::getPostId).toList(), maxIdsPerUser);
+                sets.comments.load(commentLikeRepository.findCommentIdsByUserId(userId, limit).stream()
+                        .map(CommentLike::getCommentId).toList(), maxIdsPerUser);
+                sets.loaded = true;
+                sets.loadedAt = System.currentTimeMillis();
+            }
+        }
+        return sets;
+    }
+
+    private boolean isKnown(String userId, Function<LikedSets, LikedIds> kind, String id) {
+        LikedSets sets = cache.get(userId);
+        if (sets == null) {
+            return false;
+        }
+        synchronized (sets) {
+            return sets.loaded && kind.apply(sets).ids.contains(id);
+        }
+    }
+
+    private void update(String userId, Consumer<LikedSets> change) {
+        LikedSets sets = cache.get(userId);
+        if (sets == null) {
+            return;
+        }
+        synchronized (sets) {
+            // An entry that is not loaded yet will read the change from the database
+            if (sets.loaded) {
+                change.accept(sets);
+            }
+        }
+    }
+
+    /**
+     * Answers from a viewer's cached IDs, and from the database for IDs the cache
+     * cannot rule out because the viewer has liked more than the cap.
+     */
+    private Set<String> likedAmong(LikedSets sets, LikedIds cached, Collection<String> ids,
+                                   Function<List<String>, Stream<String>> lookup) {
+        Set<String> liked;
+        List<String> unknown;
+        synchronized (sets) {
+            liked = ids.stream().filter(cached.ids::contains).collect(Collectors.toSet());
+            unknown = cached.complete ? List.of() : ids.stream().filter(id -> !cached.ids.contains(id)).toList();
+        }
+        if (!unknown.isEmpty()) {
+            lookup.apply(unknown).forEach(liked::add);
+        }
+        return liked;
+    }
+
+    /**
+     * Liked IDs of one kind, at most the configured number of them. Once an ID had to
+     * be left out, the set is incomplete and IDs missing from it are looked up.
+     * Guarded by the owning LikedSets' monitor.
+     */
+    private static final class LikedIds {
+        private final Set<String> ids = new HashSet<>();
+        private boolean complete = true;
+
+        private void load(List<String> loaded, int maxIds) {
+            ids.addAll(loaded.size() > maxIds ? loaded.subList(0, maxIds) : loaded);
+            complete = loaded.size() <= maxIds;
+        }
+
+        private void apply(String id, boolean liked, int maxIds) {
+            if (!liked) {
+                ids.remove(id);
+            } else if (ids.size() < maxIds) {
+                ids.add(id);
+            } else {
+                complete = false;
+            }
+        }
+    }
+
+    private static final class LikedSets {
+        private final LikedIds posts = new LikedIds();
+        private final LikedIds comments = new LikedIds();
+        private volatile boolean loaded;
+        private volatile long loadedAt;
+
+        private boolean isExpired(long ttlMillis) {
+            return loaded && System.currentTimeMillis() - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.thinkflow.blog.config;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal STOMP 1.2 broker over TCP, standing in for RabbitMQ or ActiveMQ in relay tests.
+ * It accepts any login, disables heart-beats, answers receipts and delivers every SEND
+ * to all subscriptions with exactly the same destination, whichever connection made them.
+ * Queues behave like topics, which is enough for the relay's per-session destinations.
+ */
+class StandInStompBroker implements AutoCloseable {
+
+	private final ServerSocket serverSocket;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final List<Connection> connections = new CopyOnWriteArrayList<>();
+	private final AtomicLong messageIds = new AtomicLong();
+
+	StandInStompBroker() throws IOException {
+		serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		executor.execute(this::accept);
+	}
+
+	int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		for (Connection connection : connections) {
+			connection.close();
+		}
+		executor.shutdownNow();
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Connection connection = new Connection(serverSocket.accept());
+				connections.add(connection);
+				executor.execute(connection::read);
+			} catch (IOException e) {
+				return; // Closed
+			}
+		}
+	}
+
+	private void deliver(Frame send) {
+		String destination = send.headers().get("destination");
+		for (Connection connection : connections) {
+			connection.subscriptions.forEach((subscriptionId, subscribed) -> {
+				if (subscribed.equals(destination)) {
+					connection.sendMessage(subscriptionId, send);
+				}
+			});
+		}
+	}
+
+	private record Frame(String command, Map<String, String> headers, List<String> rawHeaders, byte[] body) {}
+
+	private final class Connection {
+
+		private final Socket socket;
+		private final OutputStream out;
+		private final Map<String, String> subscriptions = new ConcurrentHashMap<>(); // subscription ID -> destination
+
+		private Connection(Socket socket) throws IOException {
+			this.socket = socket;
+			this.out = socket.getOutputStream();
+		}
+
+		private void read() {
+			try (InputStream in = new BufferedInputStream(socket.getInputStream())) {
+				Frame frame;
+				while ((frame = readFrame(in)) != null) {
+					handle(frame);
+				}
+			} catch (IOException e) {
+				// Connection dropped
+			} finally {
+				connections.remove(this);
+				close();
+			}
+		}
+
+		private void handle(Frame frame) {
+			switch (frame.command()) {
+				case "CONNECT", "STOMP" -> write("CONNECTED\nversion:1.2\nheart-beat:0,0\n\n", new byte[0]);
+				case "SUBSCRIBE" -> subscriptions.put(frame.headers().get("id"), frame.headers().get("destination"));
+				case "UNSUBSCRIBE" -> subscriptions.remove(frame.headers().get("id"));
+				case "SEND" -> deliver(frame);
+				default -> { }
+			}
+			String receipt = frame.headers().get("receipt");
+			if (receipt != null) {
+				write("RECEIPT\nreceipt-id:" + receipt + "\n\n", new byte[0]);
+			}
+			if ("DISCONNECT".equals(frame.command())) {
+				close();
+			}
+		}
+
+		private void sendMessage(String subscriptionId, Frame send) {
+			StringBuilder frame = new StringBuilder("MESSAGE\n")
+					.append("subscription:").append(subscriptionId).append('\n')
+					.append("message-id:").append(messageIds.incrementAndGet()).append('\n');
+			for (String header : send.rawHeaders()) {
+				if (!header.startsWith("content-length:") && !header.startsWith("receipt:")) {
+					frame.append(header).append('\n');
+				}
+			}
+			frame.append("content-length:").append(send.body().length).append("\n\n");
+			write(frame.toString(), send.body());
+		}
+
+		private synchronized void write(String headers, byte[] body) {
+			try {
+				out.write(headers.getBytes(StandardCharsets.UTF_8));
+				out.write(body);
+				out.write(0);
+				out.flush();
+			} catch (IOException e) {
+				close();
+			}
+		}
+
+		private void close() {
+			try {
+				socket.close();
+			} catch (IOException ignored) {
+				// Already closed
+			}
+		}
+	}
+
+	private static Frame readFrame(InputStream in) throws IOException {
+		String command;
+		do {
+			command = readLine(in);
+			if (command == null) {
+				return null;
+			}
+		} while (command.isEmpty()); // Heart-beat EOLs between frames
+		Map<String, String> headers = new HashMap<>();
+		List<String> rawHeaders = new ArrayList<>();
+		String line;
+		while ((line = readLine(in)) != null && !line.isEmpty()) {
+			rawHeaders.add(line);
+			int separator = line.indexOf(':');
+			// STOMP 1.2: the first occurrence of a repeated header wins
+			headers.putIfAbsent(line.substring(0, separator), line.substring(separator + 1));
+		}
+		byte[] body;
+		String contentLength = headers.get("content-length");
+		if (contentLength != null) {
+			body = in.readNBytes(Integer.parseInt(contentLength));
+			in.read(); // Trailing NUL
+		} else {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			int b;
+			while ((b = in.read()) > 0) {
+				buffer.write(b);
+			}
+			body = buffer.toByteArray();
+		}
+		return new Frame(command, headers, rawHeaders, body);
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != '\n') {
+			if (b == -1) {
+				return line.size() == 0 ? null : line.toString(StandardCharsets.UTF_8);
+			}
+			if (b != '\r') {
+				line.write(b);
+			}
+		}
+		return line.toString(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,176 @@
+package com.thinkflow.blog.config;
+
+import com.thinkflow.blog.BlogApplication;
+import com.thinkflow.blog.services.NotificationService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.lang.reflect.Type;
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts two application instances in relay mode against a local stand-in STOMP broker,
+ * connects a user to one of them and checks that user-destination messages sent from
+ * the other instance still reach that user's session.
+ */
+class StompBrokerRelayTest {
+
+	private static final long TIMEOUT_SECONDS = 15;
+
+	private static StandInStompBroker broker;
+
+	private ConfigurableApplicationContext sender;
+	private ConfigurableApplicationContext receiver;
+	private WebSocketStompClient stompClient;
+	private ThreadPoolTaskScheduler clientScheduler;
+
+	@BeforeAll
+	static void startBroker() throws Exception {
+		broker = new StandInStompBroker();
+	}
+
+	@AfterAll
+	static void stopBroker() throws Exception {
+		broker.close();
+	}
+
+	@BeforeEach
+	void startNodes() throws InterruptedException {
+		sender = startNode();
+		receiver = startNode();
+
+		clientScheduler = new ThreadPoolTaskScheduler();
+		clientScheduler.initialize();
+		stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+		stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+		stompClient.setTaskScheduler(clientScheduler);
+	}
+
+	@AfterEach
+	void stopNodes() {
+		stompClient.stop();
+		clientScheduler.shutdown();
+		receiver.close();
+		sender.close();
+	}
+
+	@Test
+	void userDestinationReachesSessionOnAnotherNode() throws Exception {
+		String userId = new ObjectId().toHexString();
+		BlockingQueue<Map<?, ?>> received = subscribe(receiver, userId);
+
+		sender.getBean(SimpMessagingTemplate.class)
+				.convertAndSendToUser(userId, NotificationService.USER_DESTINATION, Map.of("message", "cross-node"));
+
+		Map<?, ?> message = received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		assertNotNull(message, "Message sent on one node did not reach the session on the other");
+		assertEquals("cross-node", message.get("message"));
+	}
+
+	@Test
+	void userDestinationDoesNotReachOtherUsers() throws Exception {
+		BlockingQueue<Map<?, ?>> received = subscribe(receiver, new ObjectId().toHexString());
+
+		sender.getBean(SimpMessagingTemplate.class)
+				.convertAndSendToUser(new ObjectId().toHexString(), NotificationService.USER_DESTINATION, Map.of("message", "someone else"));
+
+		assertNull(received.poll(2, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Connects a STOMP session for the user to the node and waits until the broker
+	 * has acknowledged its subscription to the notifications destination.
+	 */
+	private BlockingQueue<Map<?, ?>> subscribe(ConfigurableApplicationContext node, String userId) throws Exception {
+		int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+		StompSession session = stompClient
+				.connectAsync("ws://localhost:" + port + "/ws/websocket?user=" + userId, new StompSessionHandlerAdapter() {})
+				.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		session.setAutoReceipt(true);
+
+		BlockingQueue<Map<?, ?>> received = new LinkedBlockingQueue<>();
+		CountDownLatch subscribed = new CountDownLatch(1);
+		session.subscribe("/user" + NotificationService.USER_DESTINATION, new StompFrameHandler() {
+			@Override
+			public Type getPayloadType(StompHeaders headers) {
+				return Map.class;
+			}
+
+			@Override
+			public void handleFrame(StompHeaders headers, Object payload) {
+				received.add((Map<?, ?>) payload);
+			}
+		}).addReceiptTask(subscribed::countDown);
+		assertTrue(subscribed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Subscription was not acknowledged");
+		return received;
+	}
+
+	private static ConfigurableApplicationContext startNode() throws InterruptedException {
+		ConfigurableApplicationContext node = new SpringApplicationBuilder(BlogApplication.class, QueryParamUserConfig.class)
+				.profiles("test")
+				.properties(
+						"server.port=0",
+						"spring.main.allow-bean-definition-overriding=true",
+						"websocket.broker.mode=relay",
+						"websocket.broker.relay.host=127.0.0.1",
+						"websocket.broker.relay.port=" + broker.getPort())
+				.run();
+		StompBrokerRelayMessageHandler relay = node.getBean(StompBrokerRelayMessageHandler.class);
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+		while (!relay.isBrokerAvailable() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertTrue(relay.isBrokerAvailable(), "Relay did not connect to the stand-in broker");
+		return node;
+	}
+
+	/**
+	 * Replaces the OAuth2-based handshake handler with one naming the session after
+	 * the "user" query parameter, so the test can connect as any user.
+	 */
+	static class QueryParamUserConfig {
+
+		@Bean
+		UserIdHandshakeHandler userIdHandshakeHandler() {
+			return new UserIdHandshakeHandler() {
+				@Override
+				protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+												  Map<String, Object> attributes) {
+					String user = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("user");
+					return new UserIdPrincipal(user);
+				}
+			};
+		}
+	}
+}
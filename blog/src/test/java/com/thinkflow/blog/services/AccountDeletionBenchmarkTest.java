@@ -0,0 +1,242 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Comment;
+import com.thinkflow.blog.models.CommentLike;
+import com.thinkflow.blog.models.DeletionJob;
+import com.thinkflow.blog.models.Post;
+import com.thinkflow.blog.models.Reply;
+import com.thinkflow.blog.models.User;
+import com.thinkflow.blog.repositories.CommentLikeRepository;
+import com.thinkflow.blog.repositories.CommentRepository;
+import com.thinkflow.blog.repositories.DeletionJobRepository;
+import com.thinkflow.blog.repositories.FollowRepository;
+import com.thinkflow.blog.repositories.LikeRepository;
+import com.thinkflow.blog.repositories.PostRepository;
+import com.thinkflow.blog.repositories.ReplyRepository;
+import com.thinkflow.blog.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures account deletion against a small and a large user base. The deleted user has
+ * followers who saved their posts, and has liked, commented on and replied to another
+ * user's post. Every cleanup step only touches the deleted user's own documents and the
+ * ones on their other side, so with the same fan-in the run time should stay roughly flat
+ * as the number of unrelated users grows.
+ *
+ * Seeds tens of thousands of users, so it only runs with -Dbenchmarks=true.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class AccountDeletionBenchmarkTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(AccountDeletionBenchmarkTest.class);
+
+	private static final int FAN_IN = 200;
+	private static final int POSTS = 20;
+	private static final int REPLIES = 20;
+	private static final int SMALL_USER_BASE = 2_000;
+	private static final int LARGE_USER_BASE = 50_000;
+	private static final int RUNS = 3;
+	private static final long JOB_TIMEOUT_MS = 60_000;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private DeletionJobRepository deletionJobRepository;
+
+	@Autowired
+	private FollowRepository followRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private LikeRepository likeRepository;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private CommentLikeRepository commentLikeRepository;
+
+	@Autowired
+	private ReplyRepository replyRepository;
+
+	private final List<String> seededUserIds = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAllById(seededUserIds);
+		seededUserIds.clear();
+	}
+
+	@Test
+	void deletionTimeDoesNotGrowWithUnrelatedUsers() throws InterruptedException {
+		seedFiller(SMALL_USER_BASE);
+		long small = medianDeletionMillis();
+
+		seedFiller(LARGE_USER_BASE - SMALL_USER_BASE);
+		long large = medianDeletionMillis();
+
+		logger.info("Account deletion with fan-in {} and {} posts: {} users {} ms, {} users {} ms",
+				FAN_IN, POSTS, SMALL_USER_BASE, small, LARGE_USER_BASE, large);
+		// 25x more users; a full scan would scale with them, the indexed edge cleanup should not
+		assertTrue(large <= Math.max(small, 50) * 5,
+				"Deletion took " + large + " ms with " + LARGE_USER_BASE + " users vs " + small + " ms with " + SMALL_USER_BASE);
+	}
+
+	private long medianDeletionMillis() throws InterruptedException {
+		List<Long> timings = new ArrayList<>();
+		for (int i = 0; i < RUNS; i++) {
+			timings.add(timeDeletion());
+		}
+		timings.sort(null);
+		return timings.get(RUNS / 2);
+	}
+
+	/**
+	 * Deletes a user with POSTS posts saved by FAN_IN followers, plus a like, a comment
+	 * like and REPLIES replies on another user's post, and waits for the cleanup job.
+	 * @return Milliseconds from the delete request to the job finishing
+	 */
+	private long timeDeletion() throws InterruptedException {
+		User target = new User();
+		target.setName("Deletion Benchmark Target");
+		target = userRepository.save(target);
+		String targetId = target.getId();
+
+		List<Post> posts = new ArrayList<>();
+		for (int i = 0; i < POSTS; i++) {
+			Post post = new Post();
+			post.setTitle("Deletion Benchmark Post " + i);
+			post.setUser(target);
+			post.setCreatedAt(new Date());
+			posts.add(post);
+		}
+		List<String> postIds = postRepository.saveAll(posts).stream().map(Post::getId).toList();
+
+		List<User> fans = new ArrayList<>();
+		for (int i = 0; i < FAN_IN; i++) {
+			User fan = new User();
+			fan.setName("Deletion Benchmark Fan " + i);
+			fan.setSavedPosts(new ArrayList<>(postIds));
+			fans.add(fan);
+		}
+		List<String> fanIds = new ArrayList<>();
+		for (User fan : userRepository.saveAll(fans)) {
+			seededUserIds.add(fan.getId());
+			fanIds.add(fan.getId());
+			followRepository.insertIfAbsent(fan.getId(), targetId);
+			userRepository.incrementFollowCounts(fan.getId(), targetId, 1);
+		}
+
+		// Another user's post and comment, liked and replied to by the target
+		User author = new User();
+		author.setName("Deletion Benchmark Author");
+		author = userRepository.save(author);
+		seededUserIds.add(author.getId());
+
+		Post otherPost = new Post();
+		otherPost.setTitle("Deletion Benchmark Other Post");
+		otherPost.setUser(author);
+		otherPost.setCreatedAt(new Date());
+		otherPost.setLikeCount(1);
+		otherPost.setCommentCount(1);
+		otherPost = postRepository.save(otherPost);
+		likeRepository.insertIfAbsent(otherPost.getId(), targetId);
+
+		Comment comment = new Comment();
+		comment.setPostId(otherPost.getId());
+		comment.setUser(author);
+		comment.setContent("Deletion Benchmark Comment");
+		comment.setCreatedAt(new Date());
+		comment.setLikeCount(1);
+		comment = commentRepository.save(comment);
+
+		CommentLike commentLike = new CommentLike();
+		commentLike.setCommentId(comment.getId());
+		commentLike.setUser(target);
+		commentLikeRepository.save(commentLike);
+
+		List<Reply> replies = new ArrayList<>();
+		for (int i = 0; i < REPLIES; i++) {
+			Reply reply = new Reply();
+			reply.setCommentId(comment.getId());
+			reply.setUser(target);
+			reply.setContent("Deletion Benchmark Reply " + i);
+			reply.setCreatedAt(new Date());
+			replies.add(reply);
+		}
+		replyRepository.saveAll(replies);
+
+		long start = System.nanoTime();
+		DeletionJob job = awaitCompletion(userService.deleteUser(targetId).getId());
+		long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+		assertEquals(DeletionJob.Status.DONE, job.getStatus());
+		assertTrue(followRepository.findFollowerIds(targetId).isEmpty());
+		long stillFollowing = userRepository.findAllById(fanIds).stream()
+				.filter(user -> user.getFollowingCount() != 0)
+				.count();
+		assertEquals(0, stillFollowing);
+		assertTrue(postRepository.findAllById(postIds).isEmpty());
+		long stillSaving = userRepository.findAllById(fanIds).stream()
+				.filter(user -> !user.getSavedPosts().isEmpty())
+				.count();
+		assertEquals(0, stillSaving);
+		assertEquals(0, postRepository.findById(otherPost.getId()).orElseThrow().getLikeCount());
+		assertEquals(0, commentRepository.findById(comment.getId()).orElseThrow().getLikeCount());
+		assertEquals(0, commentLikeRepository.countByCommentId(comment.getId()));
+		assertTrue(replyRepository.findByCommentId(comment.getId()).isEmpty());
+
+		commentRepository.delete(comment);
+		postRepository.delete(otherPost);
+		deletionJobRepository.deleteById(job.getId());
+		return elapsed;
+	}
+
+	private DeletionJob awaitCompletion(String jobId) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + JOB_TIMEOUT_MS;
+		while (System.currentTimeMillis() < deadline) {
+			DeletionJob job = deletionJobRepository.findById(jobId).orElseThrow();
+			if (job.getStatus() == DeletionJob.Status.DONE || job.getStatus() == DeletionJob.Status.FAILED) {
+				return job;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("Deletion job " + jobId + " did not finish within " + JOB_TIMEOUT_MS + " ms");
+	}
+
+	private void seedFiller(int count) {
+		List<User> batch = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			User filler = new User();
+			filler.setName("Deletion Benchmark Filler " + i);
+			batch.add(filler);
+			if (batch.size() == 1_000) {
+				userRepository.saveAll(batch).forEach(user -> seededUserIds.add(user.getId()));
+				batch.clear();
+			}
+		}
+		userRepository.saveAll(batch).forEach(user -> seededUserIds.add(user.getId()));
+	}
+}
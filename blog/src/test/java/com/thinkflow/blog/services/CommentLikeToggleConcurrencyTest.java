@@ -0,0 +1,99 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Comment;
+import com.thinkflow.blog.models.User;
+import com.thinkflow.blog.repositories.CommentLikeRepository;
+import com.thinkflow.blog.repositories.CommentRepository;
+import com.thinkflow.blog.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.thinkflow.blog.services.ConcurrencyTestSupport.runConcurrently;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires parallel like toggles at a single comment and checks that no duplicate
+ * likes are stored and the stored like count matches the likes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CommentLikeToggleConcurrencyTest {
+
+	private static final int USERS = 20;
+	private static final int TOGGLES_PER_USER = 25;
+
+	@Autowired
+	private CommentService commentService;
+
+	@Autowired
+	private CommentRepository commentRepository;
+
+	@Autowired
+	private CommentLikeRepository commentLikeRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Comment comment;
+	private final List<User> likers = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < USERS; i++) {
+			User liker = new User();
+			liker.setName("Comment Toggle Test Liker " + i);
+			likers.add(userRepository.save(liker));
+		}
+
+		comment = new Comment();
+		comment.setPostId("commentToggleTestPost");
+		comment.setUser(likers.get(0));
+		comment.setContent("Concurrent comment like toggles");
+		comment.setCreatedAt(new Date());
+		comment = commentRepository.save(comment);
+	}
+
+	@AfterEach
+	void tearDown() {
+		commentLikeRepository.deleteAll(commentLikeRepository.findByCommentId(comment.getId()));
+		commentRepository.deleteById(comment.getId());
+		userRepository.deleteAll(likers);
+	}
+
+	@Test
+	void concurrentFirstLikesAreCountedOnce() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		for (User liker : likers) {
+			tasks.add(() -> commentService.toggleCommentLike(comment.getId(), liker.getId()));
+		}
+		runConcurrently(tasks);
+
+		assertEquals(USERS, commentLikeRepository.countByCommentId(comment.getId()));
+		assertEquals(USERS, commentService.getCommentLikeCount(comment.getId()));
+	}
+
+	@Test
+	void concurrentTogglesKeepCountInSync() throws Exception {
+		// Each user's toggles race each other, so double likes and double unlikes both occur
+		List<Runnable> tasks = new ArrayList<>();
+		for (User liker : likers) {
+			for (int i = 0; i < TOGGLES_PER_USER; i++) {
+				tasks.add(() -> commentService.toggleCommentLike(comment.getId(), liker.getId()));
+			}
+		}
+		runConcurrently(tasks);
+
+		long stored = commentLikeRepository.countByCommentId(comment.getId());
+		assertEquals(stored, commentService.getCommentLikeCount(comment.getId()));
+		assertTrue(stored <= USERS);
+	}
+}
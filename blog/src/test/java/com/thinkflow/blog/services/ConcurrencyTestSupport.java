@@ -0,0 +1,67 @@
+package com.thinkflow.blog.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Helpers shared by the concurrency tests.
+ */
+final class ConcurrencyTestSupport {
+
+	private static final int THREADS = 32;
+	private static final long DELIVERY_TIMEOUT_MS = 30_000;
+
+	private ConcurrencyTestSupport() {
+	}
+
+	/**
+	 * Runs the tasks on a thread pool, releasing them all at once, and rethrows the
+	 * first failure.
+	 */
+	static void runConcurrently(List<Runnable> tasks) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (Runnable task : tasks) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					task.run();
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Waits until the notification pipeline has handled everything published so far and
+	 * flushes the coalescer, so the notifications and unread counters the test caused
+	 * are all written before it cleans them up.
+	 */
+	static void awaitNotificationsDelivered(NotificationPipeline pipeline, NotificationCoalescer coalescer)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MS;
+		while (!isDrained(pipeline.getStats())) {
+			if (System.currentTimeMillis() > deadline) {
+				throw new AssertionError("Notification pipeline did not drain within " + DELIVERY_TIMEOUT_MS + " ms");
+			}
+			Thread.sleep(10);
+		}
+		coalescer.flush();
+	}
+
+	private static boolean isDrained(NotificationPipeline.Stats stats) {
+		return stats.getQueued() == 0
+				&& stats.getPublished() <= stats.getCoalesced() + stats.getPersisted() + stats.getFailed();
+	}
+}
@@ -0,0 +1,159 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.User;
+import com.thinkflow.blog.repositories.FollowRepository;
+import com.thinkflow.blog.repositories.NotificationCounterRepository;
+import com.thinkflow.blog.repositories.NotificationRepository;
+import com.thinkflow.blog.repositories.UserRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static com.thinkflow.blog.services.ConcurrencyTestSupport.awaitNotificationsDelivered;
+import static com.thinkflow.blog.services.ConcurrencyTestSupport.runConcurrently;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fires parallel follows, unfollows and post saves at the same user documents and
+ * checks that no update is lost: every edge is stored once and the denormalized
+ * follow counts and saved post list match what was done.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FollowConcurrencyTest {
+
+	private static final int FOLLOWERS = 100;
+	private static final int FOLLOWS_PER_USER = 3;
+	private static final int SAVED_POSTS = 200;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private FollowRepository followRepository;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private NotificationCounterRepository notificationCounterRepository;
+
+	@Autowired
+	private NotificationPipeline notificationPipeline;
+
+	@Autowired
+	private NotificationCoalescer notificationCoalescer;
+
+	private User followee;
+	private final List<User> followers = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		followee = new User();
+		followee.setName("Follow Test Followee");
+		followee = userRepository.save(followee);
+
+		for (int i = 0; i < FOLLOWERS; i++) {
+			User follower = new User();
+			follower.setName("Follow Test Follower " + i);
+			followers.add(follower);
+		}
+		followers.replaceAll(follower -> userRepository.save(follower));
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		// Notifications are written asynchronously and coalesced ones only when their window
+		// closes; wait for both so nothing the test caused is written after the cleanup
+		awaitNotificationsDelivered(notificationPipeline, notificationCoalescer);
+		for (User follower : followers) {
+			followRepository.remove(follower.getId(), followee.getId());
+		}
+		notificationRepository.deleteAll(notificationRepository.findByUserIdOrderByCreatedAtDesc(followee.getId()));
+		notificationCounterRepository.deleteById(followee.getId());
+		userRepository.deleteAll(followers);
+		userRepository.delete(followee);
+	}
+
+	@Test
+	void concurrentFollowsOfOneAccountAreAllCounted() throws Exception {
+		// Every follower clicks "follow" several times at once; each must count exactly once
+		List<Runnable> tasks = new ArrayList<>();
+		for (User follower : followers) {
+			for (int i = 0; i < FOLLOWS_PER_USER; i++) {
+				tasks.add(() -> userService.followUser(follower.getId(), followee.getId()));
+			}
+		}
+		runConcurrently(tasks);
+
+		assertEquals(FOLLOWERS, followRepository.findFollowerIds(followee.getId()).size());
+		assertEquals(FOLLOWERS, userService.getUserById(followee.getId()).getFollowerCount());
+		for (User follower : followers) {
+			assertEquals(1, userService.getUserById(follower.getId()).getFollowingCount(),
+					"following count of " + follower.getId());
+		}
+	}
+
+	@Test
+	void concurrentUnfollowsBringCountsBackToZero() throws Exception {
+		for (User follower : followers) {
+			userService.followUser(follower.getId(), followee.getId());
+		}
+
+		List<Runnable> tasks = new ArrayList<>();
+		for (User follower : followers) {
+			for (int i = 0; i < FOLLOWS_PER_USER; i++) {
+				tasks.add(() -> userService.unfollowUser(follower.getId(), followee.getId()));
+			}
+		}
+		runConcurrently(tasks);
+
+		assertEquals(0, followRepository.findFollowerIds(followee.getId()).size());
+		assertEquals(0, userService.getUserById(followee.getId()).getFollowerCount());
+		for (User follower : followers) {
+			assertEquals(0, userService.getUserById(follower.getId()).getFollowingCount(),
+					"following count of " + follower.getId());
+		}
+	}
+
+	@Test
+	void concurrentSavesAndFollowsOnOneUserAreAllKept() throws Exception {
+		// Saves change the followee's savedPosts while follows change its follower count
+		List<String> postIds = new ArrayList<>();
+		List<Runnable> tasks = new ArrayList<>();
+		for (int i = 0; i < SAVED_POSTS; i++) {
+			String postId = new ObjectId().toHexString();
+			postIds.add(postId);
+			tasks.add(() -> userService.savePost(followee.getId(), postId));
+		}
+		for (User follower : followers) {
+			tasks.add(() -> userService.followUser(follower.getId(), followee.getId()));
+		}
+		runConcurrently(tasks);
+
+		User stored = userService.getUserById(followee.getId());
+		assertEquals(new HashSet<>(postIds), new HashSet<>(stored.getSavedPosts()));
+		assertEquals(SAVED_POSTS, stored.getSavedPosts().size());
+		assertEquals(FOLLOWERS, stored.getFollowerCount());
+
+		tasks.clear();
+		for (String postId : postIds.subList(0, SAVED_POSTS / 2)) {
+			tasks.add(() -> userService.unsavePost(followee.getId(), postId));
+		}
+		runConcurrently(tasks);
+
+		assertEquals(new HashSet<>(postIds.subList(SAVED_POSTS / 2, SAVED_POSTS)),
+				new HashSet<>(userService.getUserById(followee.getId()).getSavedPosts()));
+	}
+}
@@ -0,0 +1,128 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Notification;
+import com.thinkflow.blog.repositories.NotificationCounterRepository;
+import com.thinkflow.blog.repositories.NotificationRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks each way a reconnecting client's replay is answered: from the in-memory ring,
+ * from the range query on (userId, seq), and with RESYNC when too much was missed,
+ * including clients that have not seen any sequence number yet.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class NotificationReplayLogTest {
+
+	private static final int NOTIFICATIONS = 5;
+
+	@Autowired
+	private NotificationReplayLog replayLog;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private NotificationCounterRepository notificationCounterRepository;
+
+	@Value("${notifications.replay.max-messages:100}")
+	private int maxReplay;
+
+	private String userId;
+
+	@BeforeEach
+	void setUp() {
+		userId = new ObjectId().toHexString();
+	}
+
+	@AfterEach
+	void tearDown() {
+		notificationRepository.deleteAll(notificationRepository.findByUserIdOrderByCreatedAtDesc(userId));
+		notificationCounterRepository.deleteById(userId);
+	}
+
+	@Test
+	void recentlyPushedNotificationsAreReplayedFromTheRing() {
+		List<Notification> stored = store(NOTIFICATIONS);
+		stored.forEach(replayLog::record);
+		long ringReplays = replayLog.getStats().getRingReplays();
+
+		List<Notification> missed = replayLog.missedSince(userId, stored.get(1).getSeq());
+
+		assertEquals(seqs(stored.subList(2, NOTIFICATIONS)), seqs(missed));
+		assertEquals(ringReplays + 1, replayLog.getStats().getRingReplays());
+	}
+
+	@Test
+	void notificationsMissingFromTheRingAreReplayedFromTheDatabase() {
+		// Stored but never recorded, as if another instance had pushed them
+		List<Notification> stored = store(NOTIFICATIONS);
+		long queryReplays = replayLog.getStats().getQueryReplays();
+
+		List<Notification> missed = replayLog.missedSince(userId, stored.get(1).getSeq());
+
+		assertEquals(seqs(stored.subList(2, NOTIFICATIONS)), seqs(missed));
+		assertEquals(queryReplays + 1, replayLog.getStats().getQueryReplays());
+	}
+
+	@Test
+	void clientWithoutSequenceNumbersGetsEverythingNumbered() {
+		// A client whose list was empty, or held only notifications from before sequence numbers
+		List<Notification> stored = store(NOTIFICATIONS);
+		long queryReplays = replayLog.getStats().getQueryReplays();
+
+		List<Notification> missed = replayLog.missedSince(userId, 0);
+
+		assertEquals(seqs(stored), seqs(missed));
+		assertEquals(queryReplays + 1, replayLog.getStats().getQueryReplays());
+	}
+
+	@Test
+	void clientThatMissedMoreThanTheLimitIsToldToResync() {
+		store(NOTIFICATIONS);
+		notificationCounterRepository.allocateSequence(userId, maxReplay);
+		long resyncs = replayLog.getStats().getResyncs();
+
+		assertNull(replayLog.missedSince(userId, 0));
+		assertNull(replayLog.missedSince(userId, NOTIFICATIONS - 1));
+		assertEquals(resyncs + 2, replayLog.getStats().getResyncs());
+	}
+
+	@Test
+	void clientThatIsUpToDateGetsNothing() {
+		List<Notification> stored = store(NOTIFICATIONS);
+
+		assertEquals(List.of(), replayLog.missedSince(userId, stored.get(NOTIFICATIONS - 1).getSeq()));
+		assertEquals(List.of(), replayLog.missedSince(new ObjectId().toHexString(), 0));
+	}
+
+	/**
+	 * Stores notifications for the test user, numbered like the pipeline numbers them.
+	 */
+	private List<Notification> store(int count) {
+		List<Notification> notifications = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Notification notification = new Notification(userId, "Replay test " + i, "COMMENT");
+			notification.setSeq(replayLog.nextSequence(userId));
+			notifications.add(notificationRepository.save(notification));
+		}
+		return notifications;
+	}
+
+	private static List<Long> seqs(List<Notification> notifications) {
+		return notifications.stream().map(Notification::getSeq).toList();
+	}
+}
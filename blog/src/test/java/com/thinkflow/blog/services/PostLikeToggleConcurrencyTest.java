@@ -0,0 +1,155 @@
+package com.thinkflow.blog.services;
+
+import com.thinkflow.blog.models.Post;
+import com.thinkflow.blog.models.User;
+import com.thinkflow.blog.repositories.LikeRepository;
+import com.thinkflow.blog.repositories.NotificationCounterRepository;
+import com.thinkflow.blog.repositories.NotificationRepository;
+import com.thinkflow.blog.repositories.PostRepository;
+import com.thinkflow.blog.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.thinkflow.blog.services.ConcurrencyTestSupport.awaitNotificationsDelivered;
+import static com.thinkflow.blog.services.ConcurrencyTestSupport.runConcurrently;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires parallel like toggles at a single post and checks that no duplicate
+ * likes are stored and the denormalized like count matches the likes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PostLikeToggleConcurrencyTest {
+
+	private static final int USERS = 20;
+	private static final int TOGGLES_PER_USER = 25;
+
+	@Autowired
+	private PostService postService;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private LikeRepository likeRepository;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private NotificationCounterRepository notificationCounterRepository;
+
+	@Autowired
+	private NotificationPipeline notificationPipeline;
+
+	@Autowired
+	private NotificationCoalescer notificationCoalescer;
+
+	private User author;
+	private Post post;
+	private final List<User> likers = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		author = new User();
+		author.setName("Toggle Test Author");
+		author = userRepository.save(author);
+
+		for (int i = 0; i < USERS; i++) {
+			User liker = new User();
+			liker.setName("Toggle Test Liker " + i);
+			likers.add(userRepository.save(liker));
+		}
+
+		post = new Post();
+		post.setTitle("Toggle test");
+		post.setContent("Concurrent like toggles");
+		post.setUser(author);
+		post.setCreatedAt(new Date());
+		post = postRepository.save(post);
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		// Notifications are written asynchronously and coalesced ones only when their window
+		// closes; wait for both so nothing the test caused is written after the cleanup
+		awaitNotificationsDelivered(notificationPipeline, notificationCoalescer);
+		likeRepository.deleteByPostIdIn(List.of(post.getId()));
+		notificationRepository.deleteAll(notificationRepository.findByUserIdOrderByCreatedAtDesc(author.getId()));
+		notificationCounterRepository.deleteById(author.getId());
+		postRepository.deleteById(post.getId());
+		userRepository.deleteAll(likers);
+		userRepository.delete(author);
+	}
+
+	@Test
+	void concurrentFirstLikesAreCountedOnce() throws Exception {
+		// Every user likes the post at the same moment; no like and no count increment may be lost
+		List<Runnable> tasks = new ArrayList<>();
+		for (User liker : likers) {
+			tasks.add(() -> postService.togglePostLike(post.getId(), liker.getId(), liker.getName()));
+		}
+		runConcurrently(tasks);
+
+		assertEquals(USERS, likeRepository.countByPostId(post.getId()));
+		assertEquals(USERS, postService.getLikeCount(post.getId()));
+	}
+
+	@Test
+	void concurrentInsertsOfTheSameLikeStoreOne() throws Exception {
+		// The same like inserted many times at once; the unique index must let exactly one through
+		User liker = likers.get(0);
+		AtomicInteger inserted = new AtomicInteger();
+		List<Runnable> tasks = new ArrayList<>();
+		for (int i = 0; i < TOGGLES_PER_USER; i++) {
+			tasks.add(() -> {
+				if (likeRepository.insertIfAbsent(post.getId(), liker.getId())) {
+					inserted.incrementAndGet();
+				}
+			});
+		}
+		runConcurrently(tasks);
+
+		assertEquals(1, inserted.get());
+		assertEquals(1, likeRepository.countByPostId(post.getId()));
+	}
+
+	@Test
+	void concurrentTogglesKeepCountInSync() throws Exception {
+		List<Runnable> tasks = new ArrayList<>();
+		for (User liker : likers) {
+			for (int i = 0; i < TOGGLES_PER_USER; i++) {
+				tasks.add(() -> postService.togglePostLike(post.getId(), liker.getId(), liker.getName()));
+			}
+		}
+		runConcurrently(tasks);
+
+		assertConsistent();
+		for (User liker : likers) {
+			List<?> likes = likeRepository.findByPostId(post.getId()).stream()
+					.filter(like -> liker.getId().equals(AuthorLoader.authorIdOf(like.getUser())))
+					.toList();
+			assertTrue(likes.size() <= 1, "duplicate likes for user " + liker.getId());
+		}
+	}
+
+	private void assertConsistent() {
+		long stored = likeRepository.countByPostId(post.getId());
+		assertEquals(stored, postService.getLikeCount(post.getId()));
+		assertTrue(stored <= USERS);
+	}
+}